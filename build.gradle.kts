@@ -7,8 +7,10 @@
 
 plugins {
   id("java-library")
+  id("java-test-fixtures")
   id("com.github.johnrengelman.shadow") version "7.0.0"
   id("com.github.sherter.google-java-format") version "0.9"
+  id("me.champeau.jmh") version "0.6.5"
 }
 
 group = "com.github.jhorology.bitwig"
@@ -28,6 +30,15 @@ dependencies {
 
   implementation("org.slf4j:slf4j-api:1.7.30")
 
+  // headless stand-ins of Bitwig API
+  testFixturesImplementation("com.bitwig:extension-api:13")
+  testFixturesImplementation("org.slf4j:slf4j-api:1.7.30")
+  jmhImplementation(testFixtures(project))
+
+  // unit tests on headless stand-ins of Bitwig API
+  testImplementation("org.junit.jupiter:junit-jupiter:5.7.2")
+  testImplementation(testFixtures(project))
+
   // development build
   if (project.hasProperty("dev")) {
     implementation("ch.qos.logback:logback-core:1.2.3")
@@ -37,6 +48,21 @@ dependencies {
 
 defaultTasks("shadowJar")
 
+tasks.test {
+  useJUnitPlatform()
+}
+
+// benchmarks on headless stand-ins of Bitwig API:
+//   gradle jmh
+//   gradle jmh -PjmhIncludes=ControlBenchmark
+jmh {
+  jmhVersion.set("1.32")
+  resultFormat.set("JSON")
+  if (project.hasProperty("jmhIncludes")) {
+    includes.add(project.property("jmhIncludes") as String)
+  }
+}
+
 java {
   sourceCompatibility = JavaVersion.VERSION_11
   targetCompatibility = JavaVersion.VERSION_11
@@ -54,6 +80,17 @@ tasks.named<com.github.jengelman.gradle.plugins.shadow.tasks.ShadowJar>("shadowJ
   }
 }
 
+// end-to-end latency report on headless host and emulated device:
+//   gradle headlessLatency
+//   gradle headlessLatency -Prounds=10000
+tasks.register<JavaExec>("headlessLatency") {
+  classpath = sourceSets["testFixtures"].runtimeClasspath
+  mainClass.set("com.github.jhorology.bitwig.xone.k2.XoneK2Session")
+  if (project.hasProperty("rounds")) {
+    args(project.property("rounds") as String)
+  }
+}
+
 tasks.register<Copy>("installBwExtension") {
   dependsOn("clean", "shadowJar")
   from("build/libs") {
@@ -0,0 +1,161 @@
+package com.github.jhorology.bitwig.control;
+
+import com.bitwig.extension.controller.api.AbsoluteHardwareValueMatcher;
+import com.bitwig.extension.controller.api.HardwareActionMatcher;
+import com.bitwig.extension.controller.api.HardwareButton;
+import com.bitwig.extension.controller.api.HardwareLightVisualState;
+import com.bitwig.extension.controller.api.HardwareSurface;
+import com.bitwig.extension.controller.api.InternalHardwareLightState;
+import com.bitwig.extension.controller.api.MidiIn;
+import com.bitwig.extension.controller.api.RelativeHardwareValueMatcher;
+import com.github.jhorology.bitwig.headless.HeadlessSurface;
+import com.github.jhorology.bitwig.headless.StubValue;
+import com.github.jhorology.bitwig.headless.Stubs;
+import com.github.jhorology.bitwig.utils.Hook;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Press/release dispatch of Control. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControlBenchmark {
+  /** number of handlers per edge. */
+  @Param({"1", "4", "16"})
+  int handlers;
+
+  /** half of the handlers are conditional to the modifier. */
+  @Param({"false", "true"})
+  boolean conditional;
+
+  private BenchControl modifier;
+  private BenchControl control;
+  private StubValue isPressed;
+  private long counter;
+
+  @Setup
+  public void setup() {
+    Hook.init();
+    HeadlessSurface surface = new HeadlessSurface();
+    MidiIn midiIn = Stubs.create(MidiIn.class, "midiIn");
+    ControlRegistry<BenchControl> registry = new ControlRegistry<>();
+    modifier = new BenchControl(registry, "MODIFIER");
+    modifier.init(surface.api(), midiIn);
+    control = new BenchControl(registry, "CONTROL");
+    control.init(surface.api(), midiIn);
+    for (int i = 0; i < handlers; i++) {
+      if (conditional && i % 2 == 1) {
+        control.onPressed(modifier.whilePressed(), () -> counter++);
+        control.onReleased(() -> counter--);
+      } else {
+        control.onPressed(() -> counter++);
+        control.onReleased(() -> counter--);
+      }
+    }
+    isPressed = Stubs.value(surface.<HardwareButton>element("CONTROL_BTN").isPressed());
+  }
+
+  @TearDown
+  public void tearDown() {
+    control.dispose();
+    modifier.dispose();
+    Hook.exit();
+  }
+
+  @Benchmark
+  public long pressAndRelease() {
+    isPressed.fire(true);
+    isPressed.fire(false);
+    return counter;
+  }
+
+  static class BenchLedState extends InternalHardwareLightState {
+    static final BenchLedState OFF = new BenchLedState();
+
+    @Override
+    public HardwareLightVisualState getVisualState() {
+      return null;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return this == obj;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(this);
+    }
+  }
+
+  static class BenchControl extends Control<BenchControl, BenchLedState> {
+    private final String name;
+    private final int spec;
+
+    BenchControl(ControlRegistry<BenchControl> registry, String name) {
+      this(registry, name, BUTTON);
+    }
+
+    BenchControl(ControlRegistry<BenchControl> registry, String name, int spec) {
+      super(registry);
+      this.name = name;
+      this.spec = spec;
+    }
+
+    void init(HardwareSurface surface, MidiIn midiIn) {
+      initialize(surface, midiIn, null);
+    }
+
+    @Override
+    protected String name() {
+      return name;
+    }
+
+    @Override
+    protected BenchLedState getDefaultLedOffState() {
+      return BenchLedState.OFF;
+    }
+
+    @Override
+    protected int getSpec() {
+      return spec;
+    }
+
+    @Override
+    protected HardwareActionMatcher createPressedActionMatcher(MidiIn midiIn) {
+      return null;
+    }
+
+    @Override
+    protected HardwareActionMatcher createReleasedActionMatcher(MidiIn midiIn) {
+      return null;
+    }
+
+    @Override
+    protected AbsoluteHardwareValueMatcher createAbsValueMatcher(MidiIn midiIn) {
+      return null;
+    }
+
+    @Override
+    protected RelativeHardwareValueMatcher createRelValueMatcher(MidiIn midiIn) {
+      return null;
+    }
+
+    @Override
+    protected void sendLedState(BenchLedState state) {}
+  }
+}
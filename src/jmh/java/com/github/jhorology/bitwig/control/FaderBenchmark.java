@@ -0,0 +1,75 @@
+package com.github.jhorology.bitwig.control;
+
+import com.bitwig.extension.controller.api.AbsoluteHardwareKnob;
+import com.bitwig.extension.controller.api.MidiIn;
+import com.github.jhorology.bitwig.control.ControlBenchmark.BenchControl;
+import com.github.jhorology.bitwig.headless.AllocationMeter;
+import com.github.jhorology.bitwig.headless.HeadlessSurface;
+import com.github.jhorology.bitwig.headless.StubValue;
+import com.github.jhorology.bitwig.headless.Stubs;
+import com.github.jhorology.bitwig.utils.Hook;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Absolute-value dispatch of Control, moving four faders at once.
+ *
+ * <p>Setup fails if the dispatch allocates on the control thread, run with {@code -prof gc} to see
+ * the allocation rate of measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FaderBenchmark {
+  private static final int FADERS = 4;
+
+  private final BenchControl[] faders = new BenchControl[FADERS];
+  private final StubValue[] values = new StubValue[FADERS];
+  private double sum;
+  private int step;
+
+  @Setup
+  public void setup() {
+    Hook.init();
+    HeadlessSurface surface = new HeadlessSurface();
+    MidiIn midiIn = Stubs.create(MidiIn.class, "midiIn");
+    ControlRegistry<BenchControl> registry = new ControlRegistry<>();
+    for (int i = 0; i < FADERS; i++) {
+      faders[i] = new BenchControl(registry, "FADER" + i, Control.ENCODER);
+      faders[i].init(surface.api(), midiIn);
+      faders[i].onAbsValue(v -> sum += v).onAbsValue(v -> sum -= v * 0.5);
+      values[i] = Stubs.value(surface.<AbsoluteHardwareKnob>element("FADER" + i + "_ABS").value());
+    }
+    AllocationMeter.assertNoAllocation("moveFaders", 100_000, this::moveFaders);
+  }
+
+  @TearDown
+  public void tearDown() {
+    for (BenchControl fader : faders) {
+      fader.dispose();
+    }
+    Hook.exit();
+  }
+
+  @Benchmark
+  public double moveFaders() {
+    double v = (step++ & 0x7F) / 127.0;
+    for (int i = 0; i < FADERS; i++) {
+      values[i].fire(v);
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,153 @@
+package com.github.jhorology.bitwig.control;
+
+import com.bitwig.extension.controller.api.BooleanValue;
+import com.bitwig.extension.controller.api.ControllerHost;
+import com.bitwig.extension.controller.api.MidiIn;
+import com.github.jhorology.bitwig.control.ControlBenchmark.BenchControl;
+import com.github.jhorology.bitwig.control.ControlBenchmark.BenchLedState;
+import com.github.jhorology.bitwig.headless.HeadlessSurface;
+import com.github.jhorology.bitwig.headless.Stubs;
+import com.github.jhorology.bitwig.utils.Hook;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Switch latency of layers, both base layer and overlay follow LEDs to many values.
+ *
+ * <p>The overlay maps only {@code overlayLeds} controls, a switch should cost in proportion to the
+ * number of controls whose mapping differs, not to the size of base layer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayerSwitchBenchmark {
+  /** number of LED controls. */
+  @Param({"16", "64"})
+  int leds;
+
+  /** number of LED controls that the overlay maps. */
+  @Param({"1", "16"})
+  int overlayLeds;
+
+  private BenchControl[] ledControls;
+  private BooleanValue[] baseValues;
+  private BooleanValue[] overlayValues;
+  private Layers<BenchControl, BenchLedState> layers;
+
+  @Setup
+  public void setup() {
+    Hook.init();
+    HeadlessSurface surface = new HeadlessSurface();
+    MidiIn midiIn = Stubs.create(MidiIn.class, "midiIn");
+    ControllerHost host = Stubs.create(ControllerHost.class, "host");
+    ControlRegistry<BenchControl> registry = new ControlRegistry<>();
+    ledControls = new BenchControl[leds];
+    baseValues = new BooleanValue[leds];
+    overlayValues = new BooleanValue[leds];
+    for (int i = 0; i < leds; i++) {
+      ledControls[i] = new BenchControl(registry, "LED" + i, Control.BUTTON | Control.LED);
+      ledControls[i].init(surface.api(), midiIn);
+      baseValues[i] = Stubs.create(BooleanValue.class, "base" + i);
+      overlayValues[i] = Stubs.create(BooleanValue.class, "overlay" + i);
+    }
+    layers =
+        new Layers<>(
+            registry, "default", new BaseLayer(host), new Overlay(host), new TopOverlay(host));
+    layers.init();
+    layers.open(BaseLayer.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    layers.exit();
+    for (BenchControl control : ledControls) {
+      control.dispose();
+    }
+    Hook.exit();
+  }
+
+  /** switch to the overlay and back, the base layer is not re-applied. */
+  @Benchmark
+  public void openAndCloseOverlay() {
+    layers.open(Overlay.class);
+    layers.closeOverlay();
+  }
+
+  /** push two overlays and pop them, the top overlay shadows a half of the overlay. */
+  @Benchmark
+  public void pushAndPopStack() {
+    layers.open(Overlay.class);
+    layers.open(TopOverlay.class);
+    layers.closeOverlay();
+    layers.closeOverlay();
+  }
+
+  private class BaseLayer extends Layer<BenchControl, BenchLedState> {
+    BaseLayer(ControllerHost host) {
+      super(host);
+    }
+
+    @Override
+    protected boolean isOverlay() {
+      return false;
+    }
+
+    @Override
+    protected void setup() {
+      for (int i = 0; i < leds; i++) {
+        use(ledControls[i].led(baseValues[i], BenchLedState.OFF));
+      }
+    }
+  }
+
+  private class Overlay extends Layer<BenchControl, BenchLedState> {
+    Overlay(ControllerHost host) {
+      super(host);
+    }
+
+    @Override
+    protected boolean isOverlay() {
+      return true;
+    }
+
+    @Override
+    protected void setup() {
+      for (int i = 0; i < Math.min(overlayLeds, leds); i++) {
+        use(ledControls[i].led(overlayValues[i], BenchLedState.OFF));
+      }
+    }
+  }
+
+  private class TopOverlay extends Layer<BenchControl, BenchLedState> {
+    TopOverlay(ControllerHost host) {
+      super(host);
+    }
+
+    @Override
+    protected boolean isOverlay() {
+      return true;
+    }
+
+    @Override
+    protected void setup() {
+      int n = Math.min(overlayLeds, leds);
+      for (int i = n / 2; i < Math.min(n + n / 2, leds); i++) {
+        use(ledControls[i].led(baseValues[i], BenchLedState.OFF));
+      }
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package com.github.jhorology.bitwig.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Evaluate an easing function over a frame sweep, with or without lookup table. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EasingBenchmark {
+  /** number of frames per sweep. */
+  private static final int FRAMES = 64;
+
+  @Param({"cubicInOut", "expoInOut", "sineInOut", "cubicBezier"})
+  String curve;
+
+  @Param({"false", "true"})
+  boolean baked;
+
+  private DoubleUnaryOperator fn;
+
+  @Setup
+  public void setup() {
+    switch (curve) {
+      case "cubicInOut":
+        fn = Easing.CUBIC_IN_OUT;
+        break;
+      case "expoInOut":
+        fn = Easing.EXPO_IN_OUT;
+        break;
+      case "sineInOut":
+        fn = Easing.SINE_IN_OUT;
+        break;
+      case "cubicBezier":
+        fn = Easing.EASE;
+        break;
+      default:
+        throw new IllegalArgumentException("unknown curve [" + curve + "].");
+    }
+    if (baked) {
+      fn = Easing.bake(fn);
+    }
+  }
+
+  @Benchmark
+  public double sweep() {
+    double sum = 0.0;
+    for (int i = 0; i <= FRAMES; i++) {
+      sum += fn.applyAsDouble((double) i / FRAMES);
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,95 @@
+package com.github.jhorology.bitwig.utils;
+
+import com.bitwig.extension.controller.api.BooleanValue;
+import com.bitwig.extension.controller.api.DoubleValue;
+import com.bitwig.extension.controller.api.SettableColorValue;
+import com.github.jhorology.bitwig.headless.AllocationMeter;
+import com.github.jhorology.bitwig.headless.StubValue;
+import com.github.jhorology.bitwig.headless.Stubs;
+import com.github.jhorology.bitwig.utils.Hook.Subscription;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Subscription and callback fan-out of Hook. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HookBenchmark {
+  /** number of subscribers per value. */
+  @Param({"1", "8", "32"})
+  int subscribers;
+
+  private BooleanValue booleanValue;
+  private DoubleValue doubleValue;
+  private StubValue booleanState;
+  private StubValue doubleState;
+  private SettableColorValue colorValue;
+  private StubValue colorState;
+  private boolean flag;
+  private double sum;
+
+  @Setup
+  public void setup() {
+    Hook.init();
+    booleanValue = Stubs.create(BooleanValue.class, "booleanValue");
+    doubleValue = Stubs.create(DoubleValue.class, "doubleValue");
+    booleanState = Stubs.value(booleanValue);
+    doubleState = Stubs.value(doubleValue);
+    colorValue = Stubs.create(SettableColorValue.class, "colorValue");
+    colorState = Stubs.value(colorValue);
+    for (int i = 0; i < subscribers; i++) {
+      Hook.subscribe(booleanValue, (Consumer<Boolean>) v -> flag ^= v);
+      Hook.subscribe(doubleValue, (Consumer<Double>) v -> sum += v);
+      Hook.subscribeColor(colorValue, (r, g, b) -> sum += r + g + b);
+    }
+    AllocationMeter.assertNoAllocation("colorFanOut", 100_000, this::colorFanOut);
+  }
+
+  @TearDown
+  public void tearDown() {
+    Hook.exit();
+  }
+
+  @Benchmark
+  public boolean booleanFanOut() {
+    booleanState.fire(true);
+    booleanState.fire(false);
+    return flag;
+  }
+
+  @Benchmark
+  public double doubleFanOut() {
+    doubleState.fire(0.25);
+    doubleState.fire(0.75);
+    return sum;
+  }
+
+  @Benchmark
+  public double colorFanOut() {
+    colorState.fire(1.0f, 0.5f, 0.0f);
+    colorState.fire(0.0f, 0.5f, 1.0f);
+    return sum;
+  }
+
+  @Benchmark
+  public void subscribeAndUnsubscribe() {
+    Subscription<Boolean> subscription =
+        Hook.subscribe(booleanValue, (Consumer<Boolean>) v -> flag = v);
+    subscription.unsubscribe();
+  }
+}
@@ -0,0 +1,61 @@
+package com.github.jhorology.bitwig.utils;
+
+import com.github.jhorology.bitwig.headless.ManualClock;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Transition.update() with N active transitions, the clock advances 10ms per update. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransitionBenchmark {
+  /** number of active transitions. */
+  @Param({"0", "1", "16", "64"})
+  int transitions;
+
+  private final ManualClock clock = new ManualClock();
+  private double sum;
+
+  @Setup
+  public void setup() {
+    Transition.init(clock, null);
+    for (int i = 0; i < transitions; i++) {
+      if (i % 2 == 0) {
+        Transition.blink(100, 100, v -> sum += v);
+      } else {
+        Transition.Params params = new Transition.Params();
+        params.setDuration(500);
+        params.setEndDelay(500);
+        params.setGlobalSync(false);
+        params.setFn(t -> t);
+        Transition.create(params, v -> sum += v);
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    Transition.exit();
+  }
+
+  @Benchmark
+  public double update() {
+    clock.advance(10);
+    Transition.update();
+    return sum;
+  }
+}
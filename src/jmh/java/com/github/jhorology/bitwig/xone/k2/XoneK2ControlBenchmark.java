@@ -0,0 +1,65 @@
+package com.github.jhorology.bitwig.xone.k2;
+
+import static com.github.jhorology.bitwig.xone.k2.XoneK2LedState.*;
+
+import com.bitwig.extension.controller.ControllerExtension;
+import com.github.jhorology.bitwig.headless.HeadlessHost;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** LED state changes of XoneK2Control, sendLedState() is called from surface update. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XoneK2ControlBenchmark {
+  private static final XoneK2LedState[] STATES = {RED, YELLOW, GREEN, OFF};
+
+  /** number of LEDs changed per frame. */
+  @Param({"1", "16"})
+  int leds;
+
+  private HeadlessHost host;
+  private ControllerExtension extension;
+  private int frame;
+
+  @Setup
+  public void setup() {
+    host = new HeadlessHost(1);
+    extension = new XoneK2ExtensionDefinition().createInstance(host.api());
+    extension.init();
+    // LED states are set directly, not by layers.
+    for (int i = 0; i < leds; i++) {
+      XoneK2Control.getUnit(0).grid(i & 3, i >> 2).clearBindings();
+    }
+    extension.flush();
+  }
+
+  @TearDown
+  public void tearDown() {
+    extension.exit();
+  }
+
+  @Benchmark
+  public long sendLedState() {
+    XoneK2LedState state = STATES[frame++ & 3];
+    for (int i = 0; i < leds; i++) {
+      XoneK2Control.getUnit(0).grid(i & 3, i >> 2).led(state);
+    }
+    extension.flush();
+    return host.midiOut(0).getCount();
+  }
+}
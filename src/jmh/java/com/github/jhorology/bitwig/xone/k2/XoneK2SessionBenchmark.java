@@ -0,0 +1,68 @@
+package com.github.jhorology.bitwig.xone.k2;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end MIDI-in to LED-out on headless host and emulated device, handlers are dispatched from
+ * raw MIDI callback or from values of hardware surface.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XoneK2SessionBenchmark {
+  // LAYER button, it has pressed/released LED states.
+  private static final int LAYER_NOTE = 0x0C;
+  // CH0_FADER
+  private static final int FADER_CC = 0x10;
+
+  /** true for raw MIDI input path, false for hardware surface path. */
+  @Param({"false", "true"})
+  boolean rawMidiInput;
+
+  /** number of units, the first unit is driven. */
+  @Param({"1", "3"})
+  int units;
+
+  private XoneK2Session session;
+  private EmulatedXoneK2 device;
+  private int value;
+
+  @Setup
+  public void setup() {
+    session = new XoneK2Session(rawMidiInput, units);
+    device = session.device();
+    session.init();
+  }
+
+  @TearDown
+  public void tearDown() {
+    session.exit();
+  }
+
+  @Benchmark
+  public long pressAndRelease() {
+    return session.input(() -> device.press(LAYER_NOTE))
+        + session.input(() -> device.release(LAYER_NOTE));
+  }
+
+  @Benchmark
+  public long moveFader() {
+    int v = value++ & 0x7F;
+    return session.input(() -> device.move(FADER_CC, v));
+  }
+}
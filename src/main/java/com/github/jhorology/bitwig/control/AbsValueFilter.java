@@ -0,0 +1,181 @@
+package com.github.jhorology.bitwig.control;
+
+import com.github.jhorology.bitwig.utils.Clock;
+
+/**
+ * Jitter filter and rate limiter of an absolute encoder, e.g. fader or knob.
+ *
+ * <p>A change in the same direction as the previous change passes, a reversal of direction is
+ * dropped unless it exceeds the deadband, so a pot that dithers between two neighbouring values
+ * doesn't deliver. 0.0 and 1.0 always pass. A change within the minimum interval since the last
+ * delivery is held, {@link #drain()} releases it only once the interval has elapsed, so a caller
+ * that flushes more often should drain again after {@link #getRemainingDelay()}.
+ */
+public final class AbsValueFilter {
+  /** default deadband of reversal, 1.5 steps of 7bit value. */
+  public static final double DEFAULT_DEADBAND = 1.5 / 127.0;
+
+  /** default minimum interval of deliveries in milliseconds. */
+  public static final int DEFAULT_MIN_INTERVAL = 10;
+
+  private static final long NANOS_PER_MILLI = 1_000_000L;
+
+  private final Clock clock;
+  private double deadband;
+  private long minInterval;
+  // last accepted value, delivered or held.
+  private double value = Double.NaN;
+  private int direction;
+  private long lastDeliveryTime;
+  private boolean pending;
+  private long deliveredCount;
+  private long droppedCount;
+
+  /**
+   * Constructor with default deadband and interval.
+   *
+   * @param clock clock of rate limiter
+   */
+  public AbsValueFilter(Clock clock) {
+    this(clock, DEFAULT_DEADBAND, DEFAULT_MIN_INTERVAL);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param clock clock of rate limiter
+   * @param deadband deadband of reversal in normalized value, 0.0 to disable
+   * @param minInterval minimum interval of deliveries in milliseconds, 0 to disable
+   */
+  public AbsValueFilter(Clock clock, double deadband, int minInterval) {
+    this.clock = clock;
+    setDeadband(deadband);
+    setMinInterval(minInterval);
+  }
+
+  /**
+   * Set a deadband of reversal.
+   *
+   * @param deadband deadband in normalized value, 0.0 to disable
+   */
+  public void setDeadband(double deadband) {
+    if (deadband < 0.0) {
+      throw new IllegalArgumentException("deadband should not be negative.");
+    }
+    this.deadband = deadband;
+  }
+
+  /**
+   * Set a minimum interval of deliveries.
+   *
+   * @param minInterval interval in milliseconds, 0 to disable
+   */
+  public void setMinInterval(int minInterval) {
+    if (minInterval < 0) {
+      throw new IllegalArgumentException("minInterval should not be negative.");
+    }
+    this.minInterval = minInterval * NANOS_PER_MILLI;
+  }
+
+  /**
+   * Offer a value received from device.
+   *
+   * @param value normalized value [0.0, 1.0]
+   * @return true if the value should be delivered now, otherwise dropped or held.
+   */
+  public boolean offer(double value) {
+    if (!passes(value)) {
+      droppedCount++;
+      return false;
+    }
+    boolean first = Double.isNaN(this.value);
+    direction = first ? 0 : value > this.value ? 1 : -1;
+    this.value = value;
+    long now = clock.nanoTime();
+    if (!first && now - lastDeliveryTime < minInterval) {
+      if (pending) {
+        // superseded
+        droppedCount++;
+      }
+      pending = true;
+      return false;
+    }
+    pending = false;
+    lastDeliveryTime = now;
+    deliveredCount++;
+    return true;
+  }
+
+  /**
+   * Returns whether a held value is pending.
+   *
+   * @return true if pending
+   */
+  public boolean isPending() {
+    return pending;
+  }
+
+  /**
+   * Returns a delay until a held value is due.
+   *
+   * @return delay in milliseconds, 0 if due or nothing is held.
+   */
+  public long getRemainingDelay() {
+    if (!pending) {
+      return 0;
+    }
+    long remaining = minInterval - (clock.nanoTime() - lastDeliveryTime);
+    return remaining > 0 ? (remaining + NANOS_PER_MILLI - 1) / NANOS_PER_MILLI : 0;
+  }
+
+  /**
+   * Take a held value once the minimum interval has elapsed since the last delivery.
+   *
+   * @return value to deliver, or NaN if nothing is held or the held value is not due yet.
+   */
+  public double drain() {
+    if (!pending) {
+      return Double.NaN;
+    }
+    long now = clock.nanoTime();
+    if (now - lastDeliveryTime < minInterval) {
+      return Double.NaN;
+    }
+    pending = false;
+    lastDeliveryTime = now;
+    deliveredCount++;
+    return value;
+  }
+
+  /**
+   * Returns a number of delivered values.
+   *
+   * @return number of values
+   */
+  public long getDeliveredCount() {
+    return deliveredCount;
+  }
+
+  /**
+   * Returns a number of dropped values, sub-threshold or superseded while held.
+   *
+   * @return number of values
+   */
+  public long getDroppedCount() {
+    return droppedCount;
+  }
+
+  private boolean passes(double value) {
+    if (Double.isNaN(this.value)) {
+      return true;
+    }
+    double diff = value - this.value;
+    if (diff == 0.0) {
+      return false;
+    }
+    if (value == 0.0 || value == 1.0 || direction == 0) {
+      return true;
+    }
+    return (diff > 0.0 ? 1 : -1) == direction || Math.abs(diff) >= deadband;
+  }
+}
@@ -6,7 +6,6 @@ import com.bitwig.extension.controller.api.AbsoluteHardwareValueMatcher;
 import com.bitwig.extension.controller.api.BooleanValue;
 import com.bitwig.extension.controller.api.HardwareActionBindable;
 import com.bitwig.extension.controller.api.HardwareActionMatcher;
-import com.bitwig.extension.controller.api.HardwareBinding;
 import com.bitwig.extension.controller.api.HardwareButton;
 import com.bitwig.extension.controller.api.HardwareSurface;
 import com.bitwig.extension.controller.api.InternalHardwareLightState;
@@ -21,9 +20,11 @@ import com.github.jhorology.bitwig.utils.Hook;
 import com.github.jhorology.bitwig.utils.Hook.Subscription;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.function.Consumer;
-import java.util.function.Supplier;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,15 +42,28 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
   private static final String RELATIVE_SUFFIX = "_REL";
   private static final String LED_SUFFIX = "_LED";
 
-  private final List<Runnable> pressedHandlers;
-  private final List<Runnable> releasedHandlers;
-  private final List<Consumer<Double>> absValueHandlers;
-  private final List<HardwareBinding> bindings;
-  private final List<Subscription<?>> subscriptions;
+  // owner of mappings that are being recorded, e.g. a layer in setup(), null while not recording.
+  private static Object recordingOwner;
+
+  private final int ordinal;
+  private final ValueCache valueCache;
+
+  // mappings recorded per owner, and a mapping for direct use without owner.
+  private final Map<Object, Mapping> mappings;
+  private final Mapping directMapping;
+  private Mapping active;
+  private Object owner;
   private final List<Subscription<?>> internalSubscriptions;
 
   private double absValue;
   private boolean pressed;
+  // handlers are dispatched from raw MIDI input instead of values of hardware surface.
+  private boolean rawInput;
+  // coalescing and acceleration of relative encoder on raw input path.
+  private EncoderEngine encoder;
+  // jitter filter and rate limiter of absolute encoder on raw input path.
+  private AbsValueFilter absFilter;
+  private int modifierBit;
   private L ledState;
 
   protected MidiOut midiOut;
@@ -81,14 +95,42 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
   /** An instance of MultiStateHardwareLight. */
   protected MultiStateHardwareLight led;
 
-  /** Constructor. */
-  protected Control() {
-    this.pressedHandlers = new ArrayList<>();
-    this.releasedHandlers = new ArrayList<>();
-    this.absValueHandlers = new ArrayList<>();
-    this.subscriptions = new ArrayList<>();
+  /**
+   * Constructor, an ordinal is assigned in order of construction.
+   *
+   * @param registry registry that assigns an ordinal and holds a cache of host values.
+   */
+  protected Control(ControlRegistry<?> registry) {
+    this(registry, -1);
+  }
+
+  /**
+   * Constructor with an ordinal that is managed by inherited class, e.g. a class that has multiple
+   * instances of same control per device. a registry should not mix this with {@link
+   * #Control(ControlRegistry)}.
+   *
+   * @param registry registry that assigns an ordinal and holds a cache of host values.
+   * @param ordinal dense ordinal of this control, -1 to assign in order of construction.
+   */
+  protected Control(ControlRegistry<?> registry, int ordinal) {
+    this.ordinal = registry.assign(ordinal);
+    this.valueCache = registry.getValueCache();
+    this.valueCache.reset(this.ordinal);
+    this.mappings = new IdentityHashMap<>();
+    this.directMapping = new Mapping();
+    this.directMapping.attach();
+    this.active = directMapping;
     this.internalSubscriptions = new ArrayList<>();
-    this.bindings = new ArrayList<>();
+  }
+
+  /**
+   * Returns a dense ordinal of this control, ordinals are assigned from 0 in order of construction
+   * per registry.
+   *
+   * @return ordinal
+   */
+  public final int ordinal() {
+    return ordinal;
   }
 
   /**
@@ -158,6 +200,10 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
    */
   protected final void initialize(HardwareSurface surface, MidiIn midiIn, MidiOut midiOut) {
     this.midiOut = midiOut;
+    // raw input path compares with previous state.
+    this.pressed = false;
+    this.absValue = 0.0;
+    valueCache.reset(ordinal);
     if (isButton()) {
       LOG.trace("[{}] control is button.", name());
       this.button = createButton(surface, midiIn);
@@ -177,6 +223,136 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
     onInitialize();
   }
 
+  /**
+   * Switch to raw input path.
+   *
+   * <p>While enabled, handlers of button and absolute encoder are dispatched by {@link
+   * #rawPressed(boolean)} and {@link #rawAbsValue(double)} from a MIDI callback of inherited class,
+   * instead of values of hardware surface. HardwareBindings stay on hardware surface.
+   *
+   * @param rawInput true to enable
+   */
+  protected final void setRawInput(boolean rawInput) {
+    this.rawInput = rawInput;
+  }
+
+  /**
+   * Dispatch a raw input of button.
+   *
+   * @param pressed true if pressed
+   */
+  protected final void rawPressed(boolean pressed) {
+    if (rawInput && this.pressed != pressed) {
+      dispatchPressed(pressed);
+    }
+  }
+
+  /**
+   * Set an engine of relative encoder for raw input path, this method should be called before
+   * bindings are added. Relative values of targets that are added by {@link
+   * #onRelValue(SettableRangedValue, double)} are coalesced and accelerated by the engine instead
+   * of bindings of hardware surface, HardwareBindings of other targets stay on hardware surface.
+   *
+   * @param encoder engine, null to use bindings of hardware surface.
+   */
+  protected final void setEncoderEngine(EncoderEngine encoder) {
+    this.encoder = encoder;
+  }
+
+  /**
+   * Returns an engine of relative encoder.
+   *
+   * @return engine, or null if not set.
+   */
+  public EncoderEngine getEncoderEngine() {
+    return encoder;
+  }
+
+  /**
+   * Receive a raw input of relative encoder, the delta is dispatched by {@link #flushRelValue()}.
+   *
+   * @param ticks signed amount of ticks
+   * @return true if the delta became pending, caller should call {@link #flushRelValue()} at next
+   *     flush.
+   */
+  protected final boolean rawRelValue(int ticks) {
+    return rawInput && encoder != null && encoder.tick(ticks);
+  }
+
+  /** Dispatch a pending delta of relative encoder. */
+  protected final void flushRelValue() {
+    if (encoder == null || !encoder.isPending()) {
+      return;
+    }
+    double delta = encoder.drain();
+    List<DoubleConsumer> handlers = active.relValueHandlers;
+    for (int i = 0; i < handlers.size(); i++) {
+      handlers.get(i).accept(delta);
+    }
+  }
+
+  /**
+   * Set a filter of absolute encoder for raw input path, this method should be called before
+   * bindings are added. Absolute values of handlers are filtered, HardwareBindings stay on hardware
+   * surface.
+   *
+   * @param absFilter filter, null to use bindings of hardware surface.
+   */
+  protected final void setAbsValueFilter(AbsValueFilter absFilter) {
+    this.absFilter = absFilter;
+  }
+
+  /**
+   * Returns a filter of absolute encoder, deadband and interval are configurable per control.
+   *
+   * @return filter, or null if not set.
+   */
+  public AbsValueFilter getAbsValueFilter() {
+    return absFilter;
+  }
+
+  /**
+   * Dispatch a raw input of absolute encoder.
+   *
+   * @param value normalized value [0.0, 1.0]
+   * @return true if the value is held by rate limiter, caller should call {@link #flushAbsValue()}
+   *     at next flush.
+   */
+  protected final boolean rawAbsValue(double value) {
+    if (!rawInput) {
+      return false;
+    }
+    if (absFilter == null) {
+      if (absValue != value) {
+        dispatchAbsValue(value);
+      }
+      return false;
+    }
+    if (absFilter.offer(value)) {
+      dispatchAbsValue(value);
+    }
+    return absFilter.isPending();
+  }
+
+  /**
+   * Dispatch a value of absolute encoder that is held by rate limiter, once the minimum interval
+   * has elapsed.
+   *
+   * @return true if the value is still held, caller should call this method again after {@link
+   *     AbsValueFilter#getRemainingDelay()}.
+   */
+  protected final boolean flushAbsValue() {
+    if (absFilter == null || !absFilter.isPending()) {
+      return false;
+    }
+    double value = absFilter.drain();
+    if (Double.isNaN(value)) {
+      return true;
+    }
+    dispatchAbsValue(value);
+    return false;
+  }
+
   /** initialize delegation point for inherit class. */
   protected void onInitialize() {}
 
@@ -188,7 +364,13 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
   protected void dispose() {
     onDispose();
     clearBindings();
+    mappings.values().forEach(Mapping::clear);
+    mappings.clear();
     clearInternalSubscriptions();
+    if (modifierBit != 0) {
+      Modifier.release(modifierBit);
+      modifierBit = 0;
+    }
   }
 
   /** finalize delegation point for inherit class. */
@@ -220,7 +402,7 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
       throw new UnsupportedOperationException(
           "[" + name() + "] Control doesn't support pressed-action.");
     }
-    pressedHandlers.add(handler);
+    mapping().pressedHandlers.add(null, handler);
     return (T) this;
   }
 
@@ -236,27 +418,37 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
       throw new UnsupportedOperationException(
           "[" + name() + "] Control doesn't support pressed-action.");
     }
-    bindings.add(target.addBinding(button.pressedAction()));
+    mapping().addBinding(() -> target.addBinding(button.pressedAction()));
     return (T) this;
   }
 
   /**
    * Add a handler for button pressed event.
    *
+   * <p>A {@link Modifier} condition is resolved at compile time of handlers, other conditions are
+   * evaluated at every event.
+   *
    * @param condition execution condition of handler
    * @param handler a handler
    * @return this instance
    */
   @SuppressWarnings("unchecked")
-  public T onPressed(Supplier<Boolean> condition, Runnable handler) {
+  public T onPressed(BooleanSupplier condition, Runnable handler) {
     if (!isButton()) {
       throw new UnsupportedOperationException(
           "[" + name() + "] Control doesn't support pressed-action.");
     }
-    pressedHandlers.add(
-        () -> {
-          if (condition.get()) handler.run();
-        });
+    if (condition instanceof Modifier) {
+      mapping().pressedHandlers.add((Modifier) condition, handler);
+    } else {
+      mapping()
+          .pressedHandlers
+          .add(
+              null,
+              () -> {
+                if (condition.getAsBoolean()) handler.run();
+              });
+    }
     return (T) this;
   }
 
@@ -268,16 +460,8 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
    * @return this instance
    */
   @SuppressWarnings("unchecked")
-  public T onPressed(Supplier<Boolean> condition, HardwareActionBindable target) {
-    if (!isButton()) {
-      throw new UnsupportedOperationException(
-          "[" + name() + "] Control doesn't support pressed-action.");
-    }
-    pressedHandlers.add(
-        () -> {
-          if (condition.get()) target.invoke();
-        });
-    return (T) this;
+  public T onPressed(BooleanSupplier condition, HardwareActionBindable target) {
+    return onPressed(condition, target::invoke);
   }
 
   /**
@@ -306,7 +490,7 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
       throw new UnsupportedOperationException(
           "[" + name() + "] Control doesn't support release-action.");
     }
-    releasedHandlers.add(handler);
+    mapping().releasedHandlers.add(null, handler);
     return (T) this;
   }
 
@@ -322,23 +506,26 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
       throw new UnsupportedOperationException(
           "[" + name() + "] Control doesn't support release-action.");
     }
-    bindings.add(target.addBinding(button.releasedAction()));
+    mapping().addBinding(() -> target.addBinding(button.releasedAction()));
     return (T) this;
   }
 
   /**
    * Add a consumer for absolute value.
    *
+   * <p>The handler is dispatched from a value of hardware surface, or from raw input filtered by
+   * {@link AbsValueFilter} while raw input path is enabled.
+   *
    * @param handler A handler
    * @return this instance
    */
   @SuppressWarnings("unchecked")
-  public T onAbsValue(Consumer<Double> handler) {
+  public T onAbsValue(DoubleConsumer handler) {
     if (!isAbsoluteEncoder()) {
       throw new UnsupportedOperationException(
           "[" + name() + "] Control doesn't support absolute-value.");
     }
-    absValueHandlers.add(handler);
+    mapping().absValueHandlers.add(handler);
     return (T) this;
   }
 
@@ -354,7 +541,7 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
       throw new UnsupportedOperationException(
           "[" + name() + "] Control doesn't support absolute-value.");
     }
-    bindings.add(target.addBinding(absKnob));
+    mapping().addBinding(() -> target.addBinding(absKnob));
     return (T) this;
   }
 
@@ -372,7 +559,50 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
       throw new UnsupportedOperationException(
           "[" + name() + "] Control doesn't support absolute-value.");
     }
-    bindings.add(target.addBindingWithRange(absKnob, min, max));
+    mapping().addBinding(() -> target.addBindingWithRange(absKnob, min, max));
+    return (T) this;
+  }
+
+  /**
+   * Add a binding for absolute value with optional pickup mode.
+   *
+   * <p>In pickup mode, the control takes over the target only once the physical value crosses the
+   * last known host value, so the target doesn't jump to the physical position when a layer
+   * switches the control from another target. Host values are cached in {@link ValueCache}.
+   *
+   * <p>A target in pickup mode is set by a handler instead of a HardwareBinding, it works on both
+   * input paths like {@link #onAbsValue(DoubleConsumer)}.
+   *
+   * @param target A settable target
+   * @param pickup true to enable pickup mode
+   * @return this instance
+   */
+  @SuppressWarnings("unchecked")
+  public T onAbsValue(SettableRangedValue target, boolean pickup) {
+    if (!pickup) {
+      return onAbsValue(target);
+    }
+    if (!isAbsoluteEncoder()) {
+      throw new UnsupportedOperationException(
+          "[" + name() + "] Control doesn't support absolute-value.");
+    }
+    Mapping mapping = mapping();
+    mapping.addSubscription(
+        () ->
+            Hook.subscribeDouble(
+                target,
+                v -> {
+                  if (active == mapping) {
+                    valueCache.update(ordinal, v);
+                  }
+                }));
+    mapping.addAttachAction(() -> valueCache.attach(ordinal, Hook.lastDouble(target)));
+    mapping.absValueHandlers.add(
+        v -> {
+          if (valueCache.pickup(ordinal, v)) {
+            target.set(v);
+          }
+        });
     return (T) this;
   }
 
@@ -388,7 +618,31 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
       throw new UnsupportedOperationException(
           "[" + name() + "] Control doesn't support relative-value.");
     }
-    bindings.add(target.addBinding(relKnob));
+    mapping().addBinding(() -> target.addBinding(relKnob));
+    return (T) this;
+  }
+
+  /**
+   * Add a handler for relative value.
+   *
+   * <p>The handler is called at most once per flush with a delta that is coalesced and accelerated
+   * by {@link EncoderEngine}, hardware surface has no delta to dispatch.
+   *
+   * @param handler a handler of delta in rotations
+   * @return this instance
+   * @throws IllegalStateException if the control doesn't have an engine of raw input path.
+   */
+  @SuppressWarnings("unchecked")
+  public T onRelValue(DoubleConsumer handler) {
+    if (!isRelativeEncoder()) {
+      throw new UnsupportedOperationException(
+          "[" + name() + "] Control doesn't support relative-value.");
+    }
+    if (encoder == null) {
+      throw new IllegalStateException(
+          "[" + name() + "] handler of relative-value requires an engine of raw input path.");
+    }
+    mapping().relValueHandlers.add(handler);
     return (T) this;
   }
 
@@ -405,7 +659,7 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
       throw new UnsupportedOperationException(
           "[" + name() + "] Control doesn't support relative-value.");
     }
-    bindings.add(target.addBindingWithSensitivity(relKnob, sensitivity));
+    mapping().addBinding(() -> target.addBindingWithSensitivity(relKnob, sensitivity));
     return (T) this;
   }
 
@@ -422,7 +676,11 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
       throw new UnsupportedOperationException(
           "[" + name() + "] Control doesn't support relative-value.");
     }
-    bindings.add(target.addBindingWithSensitivity(relKnob, sensitivity));
+    if (encoder != null) {
+      mapping().relValueHandlers.add(delta -> target.inc(delta * sensitivity));
+    } else {
+      mapping().addBinding(() -> target.addBindingWithSensitivity(relKnob, sensitivity));
+    }
     return (T) this;
   }
 
@@ -441,7 +699,26 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
       throw new UnsupportedOperationException(
           "[" + name() + "] Control doesn't support relative-value.");
     }
-    bindings.add(target.addBindingWithRangeAndSensitivity(relKnob, min, max, sensitivity));
+    if (encoder == null) {
+      mapping()
+          .addBinding(
+              () -> target.addBindingWithRangeAndSensitivity(relKnob, min, max, sensitivity));
+      return (T) this;
+    }
+    Mapping mapping = mapping();
+    // last known value of target, a delta is applied once per flush, so host echoes it back
+    // before next delta.
+    double[] current = {Double.NaN};
+    mapping.addSubscription(() -> Hook.subscribeDouble(target, v -> current[0] = v));
+    mapping.addAttachAction(() -> current[0] = Hook.lastDouble(target));
+    mapping.relValueHandlers.add(
+        delta -> {
+          if (Double.isNaN(current[0])) {
+            return;
+          }
+          current[0] = Math.max(min, Math.min(max, current[0] + delta * sensitivity * (max - min)));
+          target.set(current[0]);
+        });
     return (T) this;
   }
 
@@ -456,7 +733,7 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
     if (!isLED()) {
       throw new UnsupportedOperationException("[" + name() + "] Control doesn't have LED.");
     }
-    led.state().setValue(state);
+    mapping().setLedAction(() -> led.state().setValue(state));
     return (T) this;
   }
 
@@ -484,9 +761,11 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
     if (!isLED()) {
       throw new UnsupportedOperationException("[" + name() + "] Control doesn't have LED.");
     }
-    subscriptions.add(
-        Hook.subscribe(
-            value, (Consumer<Boolean>) v -> led.state().setValue(v ? onState : offState)));
+    Mapping mapping = mapping();
+    mapping.addSubscription(
+        () -> Hook.subscribeBoolean(value, v -> led.state().setValue(v ? onState : offState)));
+    // a Value that is kept subscribed doesn't notify the current value again.
+    mapping.addAttachAction(() -> led.state().setValue(value.get() ? onState : offState));
     return (T) this;
   }
 
@@ -508,6 +787,25 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
     return !pressed;
   }
 
+  /**
+   * Returns a modifier condition that is satisfied while this control is pressed.
+   *
+   * @return a modifier condition
+   */
+  public Modifier whilePressed() {
+    int bit = getModifierBit();
+    return new Modifier(bit, bit);
+  }
+
+  /**
+   * Returns a modifier condition that is satisfied while this control is released.
+   *
+   * @return a modifier condition
+   */
+  public Modifier whileReleased() {
+    return new Modifier(getModifierBit(), 0);
+  }
+
   /**
    * Returns a current absolute-value of encoder.
    *
@@ -517,6 +815,15 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
     return absValue;
   }
 
+  /**
+   * Returns a cache of host values, shared by controls of the same registry.
+   *
+   * @return cache of host values
+   */
+  public ValueCache getValueCache() {
+    return valueCache;
+  }
+
   /**
    * Returns a current state of LED.
    *
@@ -526,17 +833,75 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
     return ledState;
   }
 
-  /** clear all handlers and binding. */
+  /**
+   * Start or stop recording mappings of controls for an owner. handlers, bindings and LED states
+   * that are added while recording are kept in a mapping of the owner, they take effect when the
+   * owner is activated.
+   *
+   * @param owner owner of mappings, null to stop recording.
+   */
+  static void record(Object owner) {
+    recordingOwner = owner;
+  }
+
+  /**
+   * Activate a mapping of owner, bindings of the previous mapping are removed. nothing is done if
+   * the owner is already active.
+   *
+   * @param owner owner of mapping, null for the mapping of direct use.
+   * @return true if changed
+   */
+  boolean activate(Object owner) {
+    if (this.owner == owner) {
+      return false;
+    }
+    // a control that is used by owner without any handlers has an empty mapping.
+    Mapping mapping =
+        owner != null ? mappings.computeIfAbsent(owner, k -> new Mapping()) : directMapping;
+    if (mapping == active) {
+      // the mapping was handed over by transfer(), it's still attached.
+      this.owner = owner;
+      return true;
+    }
+    active.detach();
+    this.owner = owner;
+    this.active = mapping;
+    mapping.attach();
+    return true;
+  }
+
+  /**
+   * Hand over an active mapping of owner to another owner, the mapping is kept attached.
+   *
+   * @param from owner of active mapping
+   * @param to new owner
+   */
+  void transfer(Object from, Object to) {
+    if (owner != from || from == null || to == null) {
+      return;
+    }
+    if (mappings.containsKey(to)) {
+      // the new owner has own mapping.
+      activate(to);
+      return;
+    }
+    owner = to;
+  }
+
+  /**
+   * Returns an owner of active mapping.
+   *
+   * @return owner, null if the mapping of direct use is active.
+   */
+  Object getOwner() {
+    return owner;
+  }
+
+  /** clear all handlers and binding of direct use, and deactivate a mapping of owner. */
   public void clearBindings() {
-    pressedHandlers.clear();
-    releasedHandlers.clear();
-    absValueHandlers.clear();
-    Collections.reverse(bindings);
-    bindings.forEach(HardwareBinding::removeBinding);
-    bindings.clear();
-    Collections.reverse(subscriptions);
-    subscriptions.forEach(Hook.Subscription::unsubscribe);
-    subscriptions.clear();
+    activate(null);
+    directMapping.clear();
+    directMapping.attach();
   }
 
   /**
@@ -593,16 +958,53 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
     btn.pressedAction().setActionMatcher(createPressedActionMatcher(midiIn));
     btn.releasedAction().setActionMatcher(createReleasedActionMatcher(midiIn));
     internalSubscriptions.add(
-        Hook.subscribe(
+        Hook.subscribeBoolean(
             btn.isPressed(),
-            (Consumer<Boolean>)
-                pressed -> {
-                  this.pressed = pressed;
-                  (pressed ? pressedHandlers : releasedHandlers).forEach(Runnable::run);
-                }));
+            pressed -> {
+              if (!rawInput) {
+                dispatchPressed(pressed);
+              }
+            }));
     return btn;
   }
 
+  private void dispatchPressed(boolean pressed) {
+    this.pressed = pressed;
+    if (modifierBit != 0) {
+      Modifier.update(modifierBit, pressed);
+    }
+    (pressed ? active.pressedHandlers : active.releasedHandlers).run();
+  }
+
+  private void dispatchAbsValue(double value) {
+    absValue = value;
+    List<DoubleConsumer> handlers = active.absValueHandlers;
+    for (int i = 0; i < handlers.size(); i++) {
+      handlers.get(i).accept(value);
+    }
+    valueCache.move(ordinal, value);
+  }
+
+  private Mapping mapping() {
+    if (recordingOwner == null) {
+      // not the active mapping, a runtime call should not leak into a layer.
+      return directMapping;
+    }
+    return mappings.computeIfAbsent(recordingOwner, k -> new Mapping());
+  }
+
+  private int getModifierBit() {
+    if (!isButton()) {
+      throw new UnsupportedOperationException("[" + name() + "] Control can't be a modifier.");
+    }
+    if (modifierBit == 0) {
+      modifierBit = Modifier.allocate();
+      Modifier.update(modifierBit, pressed);
+      LOG.trace("[{}] control is modifier, bit=[{}].", name(), modifierBit);
+    }
+    return modifierBit;
+  }
+
   private AbsoluteHardwareKnob createAbsoluteKnob(HardwareSurface surface, MidiIn midiIn) {
     AbsoluteHardwareKnob knob = surface.createAbsoluteHardwareKnob(name() + ABSOLUTE_SUFFIX);
     if (button != null) {
@@ -610,13 +1012,13 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
     }
     knob.setAdjustValueMatcher(createAbsValueMatcher(midiIn));
     internalSubscriptions.add(
-        Hook.subscribe(
+        Hook.subscribeDouble(
             knob.value(),
-            (Consumer<Double>)
-                value -> {
-                  absValue = value;
-                  absValueHandlers.forEach(h -> h.accept(value));
-                }));
+            value -> {
+              if (!rawInput) {
+                dispatchAbsValue(value);
+              }
+            }));
     return knob;
   }
 
@@ -638,7 +1040,6 @@ public abstract class Control<T extends Control<T, L>, L extends InternalHardwar
               ledState = (L) state;
               sendLedState((L) state);
             });
-    // TODO blinking
     return led;
   }
 
@@ -0,0 +1,104 @@
+package com.github.jhorology.bitwig.control;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A map of controls to values, backed by a flat array indexed by {@link Control#ordinal()}.
+ *
+ * <p>Ordinals are dense per class of control, all keys of a map should be the same class. null
+ * values are not permitted.
+ *
+ * @param <V> type of value
+ */
+public final class ControlMap<V> {
+  private static final int DEFAULT_CAPACITY = 64;
+  private Object[] values;
+  private int size;
+
+  /** Constructor. */
+  public ControlMap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param capacity initial capacity, number of ordinals
+   */
+  public ControlMap(int capacity) {
+    this.values = new Object[Math.max(capacity, 1)];
+  }
+
+  /**
+   * Returns a value of control.
+   *
+   * @param control control
+   * @return value, or null if not mapped
+   */
+  @SuppressWarnings("unchecked")
+  public V get(Control<?, ?> control) {
+    int ordinal = control.ordinal();
+    return ordinal < values.length ? (V) values[ordinal] : null;
+  }
+
+  /**
+   * Map a value to control.
+   *
+   * @param control control
+   * @param value value, not null
+   * @return previous value, or null if not mapped
+   */
+  public V put(Control<?, ?> control, V value) {
+    Objects.requireNonNull(value);
+    int ordinal = control.ordinal();
+    if (ordinal >= values.length) {
+      values = Arrays.copyOf(values, Math.max(ordinal + 1, values.length * 2));
+    }
+    V prev = get(control);
+    values[ordinal] = value;
+    if (prev == null) {
+      size++;
+    }
+    return prev;
+  }
+
+  /**
+   * Remove a value of control.
+   *
+   * @param control control
+   * @return removed value, or null if not mapped
+   */
+  public V remove(Control<?, ?> control) {
+    V prev = get(control);
+    if (prev != null) {
+      values[control.ordinal()] = null;
+      size--;
+    }
+    return prev;
+  }
+
+  /**
+   * Returns whether a value is mapped to control.
+   *
+   * @param control control
+   * @return true if mapped
+   */
+  public boolean containsKey(Control<?, ?> control) {
+    return get(control) != null;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Remove all values. */
+  public void clear() {
+    Arrays.fill(values, null);
+    size = 0;
+  }
+}
@@ -0,0 +1,105 @@
+package com.github.jhorology.bitwig.control;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A registry of controls that is shared by regions of a surface.
+ *
+ * <p>Controls are indexed by {@link Control#ordinal()}, and each control is claimed by a single
+ * region. A region is a {@link Layers} that switches its layers independently, a control claimed by
+ * another region is rejected at initialization, so a switch in one region never touches controls of
+ * another.
+ *
+ * <p>Ordinals and a {@link ValueCache} are scoped by registry, a registry should be created for
+ * each lifecycle of a surface, so they are released with it.
+ *
+ * @param <T> type of control
+ */
+public class ControlRegistry<T extends Control<T, ?>> {
+  // indexed by ordinal.
+  private final List<T> controls = new ArrayList<>();
+  private final ControlMap<Object> regions = new ControlMap<>();
+  private final ValueCache valueCache = new ValueCache();
+  // next ordinal that is assigned in order of construction.
+  private int nextOrdinal;
+
+  /**
+   * Assign an ordinal to a control that is being constructed.
+   *
+   * @param ordinal ordinal that is managed by class of control, -1 to assign in order of
+   *     construction.
+   * @return ordinal
+   */
+  int assign(int ordinal) {
+    if (ordinal < 0) {
+      return nextOrdinal++;
+    }
+    nextOrdinal = Math.max(nextOrdinal, ordinal + 1);
+    return ordinal;
+  }
+
+  /**
+   * Register a control for a region.
+   *
+   * @param control control
+   * @param region region that claims the control
+   * @return ordinal of control
+   * @throws IllegalStateException if the control is claimed by another region
+   */
+  int register(T control, Object region) {
+    Object owner = regions.get(control);
+    if (owner != null && owner != region) {
+      throw new IllegalStateException(
+          "The control[" + control.name() + "] is already used by region[" + owner + "].");
+    }
+    int ordinal = control.ordinal();
+    while (controls.size() <= ordinal) {
+      controls.add(null);
+    }
+    controls.set(ordinal, control);
+    regions.put(control, region);
+    return ordinal;
+  }
+
+  /**
+   * Release all controls of a region.
+   *
+   * @param region region
+   */
+  void release(Object region) {
+    for (T control : controls) {
+      if (control != null && regions.get(control) == region) {
+        regions.remove(control);
+      }
+    }
+  }
+
+  /**
+   * Returns a control of ordinal.
+   *
+   * @param ordinal ordinal of control
+   * @return control
+   */
+  T get(int ordinal) {
+    return controls.get(ordinal);
+  }
+
+  /**
+   * Returns a cache of host values that is shared by controls of this registry.
+   *
+   * @return cache of host values
+   */
+  public ValueCache getValueCache() {
+    return valueCache;
+  }
+
+  /**
+   * Returns a size of ordinals, greater than the maximum ordinal of registered controls.
+   *
+   * @return size of ordinals
+   */
+  public int size() {
+    return controls.size();
+  }
+}
@@ -0,0 +1,90 @@
+package com.github.jhorology.bitwig.control;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A set of controls, backed by a bitset indexed by {@link Control#ordinal()}.
+ *
+ * <p>Controls are iterated in order of addition. Ordinals are dense per class of control, all
+ * elements of a set should be the same class.
+ *
+ * @param <T> type of control
+ */
+public final class ControlSet<T extends Control<T, ?>> implements Iterable<T> {
+  private long[] bits = new long[1];
+  private final List<T> elements = new ArrayList<>();
+
+  /**
+   * Add a control.
+   *
+   * @param control control
+   * @return true if added, false if already contained
+   */
+  public boolean add(T control) {
+    int ordinal = control.ordinal();
+    int word = ordinal >>> 6;
+    if (word >= bits.length) {
+      bits = Arrays.copyOf(bits, Math.max(word + 1, bits.length * 2));
+    }
+    long bit = 1L << ordinal;
+    if ((bits[word] & bit) != 0) {
+      return false;
+    }
+    bits[word] |= bit;
+    elements.add(control);
+    return true;
+  }
+
+  /**
+   * Returns whether the control is contained.
+   *
+   * @param control control
+   * @return true if contained
+   */
+  public boolean contains(Control<?, ?> control) {
+    int ordinal = control.ordinal();
+    int word = ordinal >>> 6;
+    return word < bits.length && (bits[word] & (1L << ordinal)) != 0;
+  }
+
+  public int size() {
+    return elements.size();
+  }
+
+  public boolean isEmpty() {
+    return elements.isEmpty();
+  }
+
+  /**
+   * Returns ordinals of controls in order of addition.
+   *
+   * @return ordinals
+   */
+  public int[] ordinals() {
+    int[] ordinals = new int[elements.size()];
+    for (int i = 0; i < ordinals.length; i++) {
+      ordinals[i] = elements.get(i).ordinal();
+    }
+    return ordinals;
+  }
+
+  /** Remove all controls. */
+  public void clear() {
+    Arrays.fill(bits, 0L);
+    elements.clear();
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return Collections.unmodifiableList(elements).iterator();
+  }
+
+  @Override
+  public String toString() {
+    return elements.toString();
+  }
+}
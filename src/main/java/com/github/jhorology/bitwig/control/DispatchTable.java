@@ -0,0 +1,84 @@
+package com.github.jhorology.bitwig.control;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Handlers of a button event.
+ *
+ * <p>Handlers are compiled into a table of flat arrays keyed by the modifier state, the table is
+ * compiled when a layer setup is finished, or lazily at first dispatch.
+ */
+class DispatchTable {
+  private static final Runnable[] EMPTY = new Runnable[0];
+  private static final Runnable[][] EMPTY_TABLE = {EMPTY};
+
+  private final List<Runnable> handlers = new ArrayList<>();
+  // null means unconditional
+  private final List<Modifier> conditions = new ArrayList<>();
+  private Runnable[][] table = EMPTY_TABLE;
+  private int mask;
+  private boolean compiled = true;
+
+  /**
+   * Add a handler.
+   *
+   * @param condition a modifier condition, null if unconditional
+   * @param handler a handler
+   */
+  void add(Modifier condition, Runnable handler) {
+    handlers.add(handler);
+    conditions.add(condition);
+    compiled = false;
+  }
+
+  /** Remove all handlers. */
+  void clear() {
+    handlers.clear();
+    conditions.clear();
+    table = EMPTY_TABLE;
+    mask = 0;
+    compiled = true;
+  }
+
+  /** Compile handlers into the table. */
+  void compile() {
+    if (compiled) {
+      return;
+    }
+    int mask = 0;
+    for (Modifier condition : conditions) {
+      if (condition != null) {
+        mask |= condition.mask();
+      }
+    }
+    Runnable[][] table = new Runnable[mask + 1][];
+    List<Runnable> entry = new ArrayList<>();
+    for (int index = 0; index <= mask; index++) {
+      entry.clear();
+      if ((index & ~mask) == 0) {
+        for (int i = 0; i < handlers.size(); i++) {
+          Modifier condition = conditions.get(i);
+          if (condition == null || (index & condition.mask()) == condition.value()) {
+            entry.add(handlers.get(i));
+          }
+        }
+      }
+      table[index] = entry.isEmpty() ? EMPTY : entry.toArray(EMPTY);
+    }
+    this.table = table;
+    this.mask = mask;
+    this.compiled = true;
+  }
+
+  /** Run handlers that match the current modifier state. */
+  void run() {
+    if (!compiled) {
+      compile();
+    }
+    Runnable[] entry = table[Modifier.state() & mask];
+    for (int i = 0; i < entry.length; i++) {
+      entry[i].run();
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package com.github.jhorology.bitwig.control;
+
+import com.github.jhorology.bitwig.utils.Clock;
+import com.github.jhorology.bitwig.utils.Easing;
+
+/**
+ * Coalescing and acceleration of a relative encoder.
+ *
+ * <p>Ticks received between flushes are summed into a single delta. Each tick is scaled by a factor
+ * computed from the interval since the previous tick, slow moves keep a factor of 1.0 for precision
+ * and fast spins are accelerated up to a maximum factor.
+ *
+ * <pre>
+ *   factor
+ *    max |_____
+ *        |     `.
+ *        |       `-.
+ *    1.0 |          `-.________
+ *        +-----+---------+-------- interval
+ *            fast       slow
+ * </pre>
+ */
+public final class EncoderEngine {
+  /** default maximum factor of acceleration. */
+  public static final double DEFAULT_MAX_FACTOR = 4.0;
+
+  /** default interval in milliseconds, ticks slower than this are not accelerated. */
+  public static final int DEFAULT_SLOW_INTERVAL = 50;
+
+  /** default interval in milliseconds, ticks faster than this are accelerated by max factor. */
+  public static final int DEFAULT_FAST_INTERVAL = 5;
+
+  private static final long NANOS_PER_MILLI = 1_000_000L;
+
+  private final Clock clock;
+  private final double ticksPerRotation;
+  private final double maxFactor;
+  private final long slowInterval;
+  private final long fastInterval;
+  private boolean ticked;
+  private long lastTickTime;
+  private boolean pending;
+  private double delta;
+  private long receivedCount;
+  private long deliveredCount;
+
+  /**
+   * Constructor with default acceleration.
+   *
+   * @param clock clock to measure intervals of ticks
+   * @param ticksPerRotation number of ticks per rotation
+   */
+  public EncoderEngine(Clock clock, int ticksPerRotation) {
+    this(clock, ticksPerRotation, DEFAULT_MAX_FACTOR, DEFAULT_SLOW_INTERVAL, DEFAULT_FAST_INTERVAL);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param clock clock to measure intervals of ticks
+   * @param ticksPerRotation number of ticks per rotation
+   * @param maxFactor maximum factor of acceleration, 1.0 to disable acceleration
+   * @param slowInterval interval in milliseconds, ticks slower than this are not accelerated.
+   * @param fastInterval interval in milliseconds, ticks faster than this are accelerated by max
+   *     factor.
+   */
+  public EncoderEngine(
+      Clock clock, int ticksPerRotation, double maxFactor, int slowInterval, int fastInterval) {
+    if (ticksPerRotation <= 0
+        || maxFactor < 1.0
+        || fastInterval < 0
+        || slowInterval <= fastInterval) {
+      throw new IllegalArgumentException(
+          "ticksPerRotation should be positive, maxFactor >= 1.0 and slowInterval > fastInterval.");
+    }
+    this.clock = clock;
+    this.ticksPerRotation = ticksPerRotation;
+    this.maxFactor = maxFactor;
+    this.slowInterval = slowInterval * NANOS_PER_MILLI;
+    this.fastInterval = fastInterval * NANOS_PER_MILLI;
+  }
+
+  /**
+   * Receive ticks of encoder.
+   *
+   * @param ticks signed amount of ticks, positive value is clockwise.
+   * @return true if the delta became pending by this call, caller should schedule a flush.
+   */
+  public boolean tick(int ticks) {
+    long now = clock.nanoTime();
+    double factor = ticked ? factor(now - lastTickTime) : 1.0;
+    ticked = true;
+    lastTickTime = now;
+    receivedCount++;
+    delta += ticks * factor;
+    if (pending) {
+      return false;
+    }
+    pending = true;
+    return true;
+  }
+
+  /**
+   * Returns whether a delta is pending.
+   *
+   * @return true if pending
+   */
+  public boolean isPending() {
+    return pending;
+  }
+
+  /**
+   * Take the pending delta.
+   *
+   * @return delta in rotations
+   */
+  public double drain() {
+    double rotations = delta / ticksPerRotation;
+    delta = 0.0;
+    if (pending) {
+      pending = false;
+      deliveredCount++;
+    }
+    return rotations;
+  }
+
+  /**
+   * Returns a number of received events of ticks.
+   *
+   * @return number of events
+   */
+  public long getReceivedCount() {
+    return receivedCount;
+  }
+
+  /**
+   * Returns a number of delivered deltas, a delta coalesces received events within a flush.
+   *
+   * @return number of deltas
+   */
+  public long getDeliveredCount() {
+    return deliveredCount;
+  }
+
+  private double factor(long interval) {
+    if (interval >= slowInterval) {
+      return 1.0;
+    }
+    if (interval <= fastInterval) {
+      return maxFactor;
+    }
+    double t = (double) (slowInterval - interval) / (slowInterval - fastInterval);
+    return 1.0 + (maxFactor - 1.0) * Easing.QUAD_IN.applyAsDouble(t);
+  }
+}
@@ -2,22 +2,18 @@ package com.github.jhorology.bitwig.control;
 
 import com.bitwig.extension.controller.api.ControllerHost;
 import com.bitwig.extension.controller.api.InternalHardwareLightState;
-import com.github.jhorology.bitwig.utils.Hook.Subscription;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public abstract class Layer<T extends Control<T, L>, L extends InternalHardwareLightState> {
   private static final Logger LOG = LoggerFactory.getLogger(Layer.class);
-  protected Set<T> controls;
-  protected List<Subscription> subscriptions;
+  protected ControlSet<T> controls;
   protected final ControllerHost host;
   private boolean initializing;
   protected Layers<T, L> layers;
+  // ordinals of controls, and owners of them that are shadowed while this layer is stacked.
+  int[] ordinals;
+  Layer<T, L>[] shadowed;
 
   protected Layer(ControllerHost host) {
     this.host = host;
@@ -33,14 +29,18 @@ public abstract class Layer<T extends Control<T, L>, L extends InternalHardwareL
 
   void initialize() {
     LOG.debug("Layer[{}] start initializing.", this.getClass());
-    subscriptions = new ArrayList<>();
     initializing = true;
-    controls = new HashSet<>();
-    // call setup() within ControllerExtension#init():
+    controls = new ControlSet<>();
+    // call setup() once within ControllerExtension#init():
     // - registering all needed observer for Value#addValueObserver.
     // - determines the controls that are used by this layer
-    setup();
-    clearBindings();
+    // - records mappings of controls, they are attached when this layer is activated.
+    Control.record(this);
+    try {
+      setup();
+    } finally {
+      Control.record(null);
+    }
     initializing = false;
     onInitialize();
     LOG.debug("Layer[{}] initialized. controls.size()=[{}]", this.getClass(), this.controls.size());
@@ -66,11 +66,13 @@ public abstract class Layer<T extends Control<T, L>, L extends InternalHardwareL
   @SafeVarargs
   protected final void use(T... controls) {
     if (initializing) {
-      this.controls.addAll(Arrays.asList(controls));
+      for (T control : controls) {
+        this.controls.add(control);
+      }
     }
   }
 
-  Set<T> getControls() {
+  ControlSet<T> getControls() {
     return controls;
   }
 
@@ -80,10 +82,10 @@ public abstract class Layer<T extends Control<T, L>, L extends InternalHardwareL
 
   void clearBindings(boolean excludeCommonControls) {
     LOG.debug("Layer[{}] clearBindings. controls=[{}]", this.getClass(), controls);
-    controls.stream()
-        .filter(c -> !excludeCommonControls || !c.isCommon())
-        .forEach(Control::clearBindings);
-    subscriptions.forEach(Subscription::unsubscribe);
-    subscriptions.clear();
+    for (T control : controls) {
+      if ((!excludeCommonControls || !control.isCommon()) && control.getOwner() == this) {
+        control.activate(null);
+      }
+    }
   }
 }
@@ -1,83 +1,220 @@
 package com.github.jhorology.bitwig.control;
 
 import com.bitwig.extension.controller.api.InternalHardwareLightState;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * A stack of layers, the bottom of stack is a base layer and overlays are stacked on it.
+ *
+ * <p>Each control is owned by the top-most layer that uses it. An owner of each control is held in
+ * an array indexed by ordinal of control, a pushed layer saves owners that it shadows and a popped
+ * layer restores them, so push and pop rebind only the controls that the layer uses.
+ *
+ * <p>Multiple parts of a surface can switch layers independently by regions, a region is a Layers
+ * that shares a {@link ControlRegistry} with other regions. Controls used by layers of a region are
+ * claimed by the region.
+ */
 public class Layers<T extends Control<T, L>, L extends InternalHardwareLightState> {
   private static final Logger LOG = LoggerFactory.getLogger(Layers.class);
   private final Map<Class<?>, Layer<T, L>> layers;
-
-  // TODO support multiple stacked layer
-  // TODO support multiple part of surface
-  private Layer<T, L> baseLayer;
-  private Layer<T, L> overlay;
+  private final String name;
+  private final ControlRegistry<T> registry;
+  // top-most layer that uses the control, indexed by ordinal.
+  private Layer<T, L>[] owners;
+  // ordinals of common controls that are used by layers of this region.
+  private int[] commonOrdinals;
+  // index 0 is base layer.
+  private final List<Layer<T, L>> stack;
 
   @SafeVarargs
   public Layers(Layer<T, L>... layers) {
+    this(new ControlRegistry<>(), "default", layers);
+  }
+
+  /**
+   * Constructor of a region.
+   *
+   * @param registry registry of controls that is shared by regions
+   * @param name name of region
+   * @param layers layers of region
+   */
+  @SafeVarargs
+  public Layers(ControlRegistry<T> registry, String name, Layer<T, L>... layers) {
+    this.registry = registry;
+    this.name = name;
     this.layers =
         Stream.of(layers)
             .peek(l -> l.setLayers(this))
             .peek(l -> LOG.trace("Layer[class={}] is registered.", l.getClass()))
             .collect(Collectors.toMap(Layer<T, L>::getClass, l -> l));
-    LOG.trace("total [{}] layers are registered.", this.layers.size());
+    this.stack = new ArrayList<>();
+    LOG.trace("total [{}] layers are registered in region[{}].", this.layers.size(), name);
   }
 
   /** initialize. this method should be called at extension's start of lifecycle. */
+  @SuppressWarnings("unchecked")
   public void init() {
-    layers.values().forEach(Layer::initialize);
+    for (Layer<T, L> layer : layers.values()) {
+      layer.initialize();
+      for (T control : layer.getControls()) {
+        registry.register(control, this);
+      }
+      layer.ordinals = layer.getControls().ordinals();
+      layer.shadowed = (Layer<T, L>[]) new Layer<?, ?>[layer.ordinals.length];
+    }
+    owners = (Layer<T, L>[]) new Layer<?, ?>[registry.size()];
+    commonOrdinals =
+        layers.values().stream()
+            .flatMapToInt(l -> IntStream.of(l.ordinals))
+            .filter(ordinal -> registry.get(ordinal).isCommon())
+            .distinct()
+            .toArray();
   }
 
   /** finalize. this method should be called at extension's end of lifecycle. */
   public void exit() {
     layers.values().forEach(Layer::dispose);
+    // common controls may be owned by a base layer that doesn't use them.
+    for (int ordinal : commonOrdinals) {
+      if (owners[ordinal] != null && registry.get(ordinal).getOwner() == owners[ordinal]) {
+        registry.get(ordinal).activate(null);
+      }
+    }
     layers.clear();
-    baseLayer = null;
-    overlay = null;
+    registry.release(this);
+    stack.clear();
+    owners = null;
+    commonOrdinals = null;
   }
 
+  /** close the top-most overlay. */
   public void closeOverlay() {
-    if (overlay != null) {
-      overlay.clearBindings();
-      if (baseLayer == null) {
+    if (stack.size() > 1) {
+      pop();
+    }
+  }
+
+  /**
+   * Close an overlay and overlays that are stacked on it.
+   *
+   * @param clazz class of overlay
+   */
+  public void close(Class<?> clazz) {
+    Layer<T, L> layer = get(clazz);
+    int index = stack.indexOf(layer);
+    if (index <= 0) {
+      return;
+    }
+    while (stack.size() > index) {
+      pop();
+    }
+  }
+
+  /**
+   * Open a layer. An overlay is pushed onto the stack, a stacked overlay becomes top-most by
+   * closing overlays on it. A base layer replaces current base layer after all overlays are closed.
+   *
+   * @param clazz class of layer
+   */
+  public void open(Class<?> clazz) {
+    Layer<T, L> layer = get(clazz);
+    if (layer.isOverlay()) {
+      if (stack.isEmpty()) {
         throw new IllegalStateException("Base layer doesn't exist.");
       }
-      baseLayer.clearBindings();
-      baseLayer.setup();
+      int index = stack.indexOf(layer);
+      if (index > 0) {
+        while (stack.size() > index + 1) {
+          pop();
+        }
+      } else {
+        push(layer);
+      }
+    } else {
+      while (stack.size() > 1) {
+        pop();
+      }
+      replaceBaseLayer(layer);
     }
+    LOG.trace("activate layer[{}]. region=[{}] depth=[{}]", clazz.getName(), name, stack.size());
   }
 
-  public void open(Class<?> clazz) {
+  @Override
+  public String toString() {
+    return name;
+  }
+
+  private Layer<T, L> get(Class<?> clazz) {
     Layer<T, L> layer = layers.get(clazz);
     if (layer == null) {
       throw new IllegalStateException(
           "The Layer[class=" + clazz.getName() + "] is not registered.");
     }
-    activate(layer);
-    LOG.trace("activate layer[{}].", clazz.getName());
+    return layer;
   }
 
-  private void activate(Layer<T, L> layer) {
-    if (overlay != null) {
-      overlay.clearBindings();
+  private void push(Layer<T, L> layer) {
+    stack.add(layer);
+    int[] ordinals = layer.ordinals;
+    for (int i = 0; i < ordinals.length; i++) {
+      int ordinal = ordinals[i];
+      layer.shadowed[i] = owners[ordinal];
+      owners[ordinal] = layer;
+      registry.get(ordinal).activate(layer);
     }
-    if (baseLayer != null) {
-      baseLayer.clearBindings();
+  }
+
+  private void pop() {
+    Layer<T, L> layer = stack.remove(stack.size() - 1);
+    int[] ordinals = layer.ordinals;
+    for (int i = 0; i < ordinals.length; i++) {
+      int ordinal = ordinals[i];
+      owners[ordinal] = layer.shadowed[i];
+      layer.shadowed[i] = null;
+      registry.get(ordinal).activate(owners[ordinal]);
     }
-    if (layer.isOverlay()) {
-      if (baseLayer == null) {
-        throw new IllegalStateException("Base layer doesn't exist.");
+  }
+
+  private void replaceBaseLayer(Layer<T, L> layer) {
+    Layer<T, L> prev = stack.isEmpty() ? null : stack.get(0);
+    if (prev == layer) {
+      return;
+    }
+    if (prev != null) {
+      for (int ordinal : prev.ordinals) {
+        // RULE: first base-layer only can setup common controls, they are kept mapped.
+        if (!registry.get(ordinal).isCommon()) {
+          owners[ordinal] = null;
+        }
       }
-      baseLayer.setup();
-      layer.getControls().forEach(Control::clearBindings);
-      layer.setup();
-      overlay = layer;
+      stack.set(0, layer);
     } else {
-      layer.setup();
-      baseLayer = layer;
+      stack.add(layer);
+    }
+    for (int ordinal : layer.ordinals) {
+      owners[ordinal] = layer;
+    }
+    if (prev != null) {
+      for (int ordinal : prev.ordinals) {
+        registry.get(ordinal).activate(owners[ordinal]);
+      }
+      // common controls that are kept mapped are owned by the new base layer.
+      for (int ordinal : commonOrdinals) {
+        if (owners[ordinal] == prev) {
+          owners[ordinal] = layer;
+          registry.get(ordinal).transfer(prev, layer);
+        }
+      }
+    }
+    for (int ordinal : layer.ordinals) {
+      registry.get(ordinal).activate(layer);
     }
   }
 }
@@ -0,0 +1,135 @@
+package com.github.jhorology.bitwig.control;
+
+import com.bitwig.extension.controller.api.HardwareBinding;
+import com.github.jhorology.bitwig.utils.Hook.Subscription;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleConsumer;
+import java.util.function.Supplier;
+
+/**
+ * A compiled mapping of a control for a layer.
+ *
+ * <p>Handlers are kept as compiled tables, HardwareBindings and subscriptions are kept as factories
+ * that are invoked when the mapping is attached to the control, and are removed when detached. A
+ * mapping is recorded once and reused for every activation of the layer.
+ */
+final class Mapping {
+  final DispatchTable pressedHandlers = new DispatchTable();
+  final DispatchTable releasedHandlers = new DispatchTable();
+  final List<DoubleConsumer> absValueHandlers = new ArrayList<>();
+  final List<DoubleConsumer> relValueHandlers = new ArrayList<>();
+  private final List<Supplier<HardwareBinding>> bindingFactories = new ArrayList<>();
+  private final List<Supplier<Subscription<?>>> subscriptionFactories = new ArrayList<>();
+  // a constant LED state, replaced by a later one.
+  private Runnable ledAction;
+  // e.g. LED states, applied at every attach.
+  private final List<Runnable> attachActions = new ArrayList<>();
+  private final List<HardwareBinding> bindings = new ArrayList<>();
+  private final List<Subscription<?>> subscriptions = new ArrayList<>();
+  private boolean attached;
+
+  /**
+   * Add a factory of HardwareBinding, the binding is created now if attached.
+   *
+   * @param factory factory of binding
+   */
+  void addBinding(Supplier<HardwareBinding> factory) {
+    bindingFactories.add(factory);
+    if (attached) {
+      bindings.add(factory.get());
+    }
+  }
+
+  /**
+   * Add a factory of subscription, the subscription is created now and is kept only if attached.
+   *
+   * @param factory factory of subscription
+   */
+  void addSubscription(Supplier<Subscription<?>> factory) {
+    subscriptionFactories.add(factory);
+    Subscription<?> subscription = factory.get();
+    if (attached) {
+      subscriptions.add(subscription);
+    } else {
+      // observers of Value should be registered within ControllerExtension#init().
+      subscription.unsubscribe();
+    }
+  }
+
+  /**
+   * Add an action that runs at every attach, the action runs now if attached.
+   *
+   * @param action action
+   */
+  void addAttachAction(Runnable action) {
+    attachActions.add(action);
+    if (attached) {
+      action.run();
+    }
+  }
+
+  /**
+   * Set an action that applies a constant LED state at every attach, the action runs now if
+   * attached.
+   *
+   * @param action action
+   */
+  void setLedAction(Runnable action) {
+    ledAction = action;
+    if (attached) {
+      action.run();
+    }
+  }
+
+  /** Create bindings and subscriptions. */
+  void attach() {
+    if (attached) {
+      return;
+    }
+    attached = true;
+    pressedHandlers.compile();
+    releasedHandlers.compile();
+    for (int i = 0; i < bindingFactories.size(); i++) {
+      bindings.add(bindingFactories.get(i).get());
+    }
+    for (int i = 0; i < subscriptionFactories.size(); i++) {
+      subscriptions.add(subscriptionFactories.get(i).get());
+    }
+    if (ledAction != null) {
+      ledAction.run();
+    }
+    for (int i = 0; i < attachActions.size(); i++) {
+      attachActions.get(i).run();
+    }
+  }
+
+  /** Remove bindings and subscriptions, handlers are kept. */
+  void detach() {
+    if (!attached) {
+      return;
+    }
+    attached = false;
+    for (int i = bindings.size() - 1; i >= 0; i--) {
+      bindings.get(i).removeBinding();
+    }
+    bindings.clear();
+    for (int i = subscriptions.size() - 1; i >= 0; i--) {
+      subscriptions.get(i).unsubscribe();
+    }
+    subscriptions.clear();
+  }
+
+  /** Detach and forget everything. */
+  void clear() {
+    detach();
+    pressedHandlers.clear();
+    releasedHandlers.clear();
+    absValueHandlers.clear();
+    relValueHandlers.clear();
+    bindingFactories.clear();
+    subscriptionFactories.clear();
+    ledAction = null;
+    attachActions.clear();
+  }
+}
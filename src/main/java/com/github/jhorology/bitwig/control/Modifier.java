@@ -0,0 +1,96 @@
+package com.github.jhorology.bitwig.control;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * A condition of modifier buttons.
+ *
+ * <p>A button control that is used as modifier is assigned a bit of global modifier state. Handlers
+ * with Modifier condition are compiled into dispatch table of control, so that a button event is
+ * dispatched by a single array lookup keyed by the current modifier state.
+ */
+public final class Modifier implements BooleanSupplier {
+  /** maximum number of modifier controls. */
+  static final int MAX_MODIFIERS = 8;
+
+  private static int state;
+  private static int allocated;
+
+  private final int mask;
+  private final int value;
+
+  Modifier(int mask, int value) {
+    this.mask = mask;
+    this.value = value;
+  }
+
+  /**
+   * Allocate a bit for new modifier control.
+   *
+   * @return a bit of modifier state
+   */
+  static int allocate() {
+    int bit = Integer.lowestOneBit(~allocated);
+    if (bit == 0 || bit >= 1 << MAX_MODIFIERS) {
+      throw new IllegalStateException("Too many modifiers, maximum is " + MAX_MODIFIERS + ".");
+    }
+    allocated |= bit;
+    return bit;
+  }
+
+  /**
+   * Release a bit of modifier control.
+   *
+   * @param bit a bit of modifier state
+   */
+  static void release(int bit) {
+    allocated &= ~bit;
+    state &= ~bit;
+  }
+
+  /**
+   * Update the modifier state.
+   *
+   * @param bit a bit of modifier
+   * @param pressed pressed state of modifier
+   */
+  static void update(int bit, boolean pressed) {
+    state = pressed ? state | bit : state & ~bit;
+  }
+
+  /**
+   * Returns a current modifier state.
+   *
+   * @return bits of pressed modifiers
+   */
+  static int state() {
+    return state;
+  }
+
+  int mask() {
+    return mask;
+  }
+
+  int value() {
+    return value;
+  }
+
+  /**
+   * Returns a combined condition of this and other.
+   *
+   * @param other an other condition
+   * @return a condition that is satisfied when both are satisfied
+   */
+  public Modifier and(Modifier other) {
+    if (((value ^ other.value) & mask & other.mask) != 0) {
+      throw new IllegalArgumentException("Conditions are never satisfied at same time.");
+    }
+    return new Modifier(mask | other.mask, value | other.value);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean getAsBoolean() {
+    return (state & mask) == value;
+  }
+}
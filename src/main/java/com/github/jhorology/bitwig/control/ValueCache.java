@@ -0,0 +1,176 @@
+package com.github.jhorology.bitwig.control;
+
+import java.util.Arrays;
+
+/**
+ * A cache of host values and pickup states of absolute encoders, backed by primitive arrays indexed
+ * by {@link Control#ordinal()}.
+ *
+ * <p>A host value is the last known value of a target that is attached to the control, it's updated
+ * by a subscription of {@link com.github.jhorology.bitwig.utils.Hook}. A control in pickup mode
+ * takes over the target only once the physical value crosses the host value, or comes within the
+ * tolerance of it. The pickup state is cleared whenever a target is attached, or the host value is
+ * moved away from values sent by the control, e.g. by automation or mouse edit.
+ *
+ * <p>Ordinals are dense per {@link ControlRegistry}, a cache is shared by all controls of the same
+ * registry.
+ */
+public final class ValueCache {
+  /** default tolerance of pickup, a step of 7bit value. */
+  public static final double DEFAULT_TOLERANCE = 1.0 / 127.0;
+
+  private double tolerance = DEFAULT_TOLERANCE;
+  // NaN if unknown.
+  private double[] hostValues = new double[0];
+  // last physical values, NaN if unknown.
+  private double[] physicalValues = new double[0];
+  private boolean[] pickedUp = new boolean[0];
+  // range of values sent by control that are not yet echoed back by host, NaN if none.
+  private double[] sentMin = new double[0];
+  private double[] sentMax = new double[0];
+  private double[] lastSent = new double[0];
+
+  /**
+   * Set a tolerance of pickup.
+   *
+   * @param tolerance tolerance in normalized value, 0.0 to take over only by crossing.
+   */
+  public void setTolerance(double tolerance) {
+    if (tolerance < 0.0) {
+      throw new IllegalArgumentException("tolerance should not be negative.");
+    }
+    this.tolerance = tolerance;
+  }
+
+  /**
+   * Returns a last known host value of the target attached to control.
+   *
+   * @param control control
+   * @return host value, or NaN if unknown.
+   */
+  public double getHostValue(Control<?, ?> control) {
+    int ordinal = control.ordinal();
+    return ordinal < hostValues.length ? hostValues[ordinal] : Double.NaN;
+  }
+
+  /**
+   * Returns whether the control has taken over the target.
+   *
+   * @param control control
+   * @return true if picked up
+   */
+  public boolean isPickedUp(Control<?, ?> control) {
+    int ordinal = control.ordinal();
+    return ordinal < pickedUp.length && pickedUp[ordinal];
+  }
+
+  /**
+   * Allocate and reset a slot of ordinal.
+   *
+   * @param ordinal ordinal of control
+   */
+  void reset(int ordinal) {
+    if (ordinal >= hostValues.length) {
+      int length = Math.max(ordinal + 1, hostValues.length * 2);
+      hostValues = grow(hostValues, length);
+      physicalValues = grow(physicalValues, length);
+      pickedUp = Arrays.copyOf(pickedUp, length);
+      sentMin = grow(sentMin, length);
+      sentMax = grow(sentMax, length);
+      lastSent = grow(lastSent, length);
+    }
+    hostValues[ordinal] = Double.NaN;
+    physicalValues[ordinal] = Double.NaN;
+    pickedUp[ordinal] = false;
+    clearSent(ordinal);
+  }
+
+  /**
+   * A target is attached to control, the control should pickup again.
+   *
+   * @param ordinal ordinal of control
+   * @param hostValue current value of target, NaN if unknown.
+   */
+  void attach(int ordinal, double hostValue) {
+    hostValues[ordinal] = hostValue;
+    pickedUp[ordinal] = false;
+    clearSent(ordinal);
+  }
+
+  /**
+   * A value of attached target is changed by host. a value that is not an echo of values sent by
+   * the control releases the pickup.
+   *
+   * @param ordinal ordinal of control
+   * @param hostValue value of target
+   */
+  void update(int ordinal, double hostValue) {
+    hostValues[ordinal] = hostValue;
+    if (!pickedUp[ordinal] || Double.isNaN(lastSent[ordinal])) {
+      return;
+    }
+    if (hostValue < sentMin[ordinal] - tolerance || hostValue > sentMax[ordinal] + tolerance) {
+      // moved by others.
+      pickedUp[ordinal] = false;
+      clearSent(ordinal);
+    } else if (Math.abs(hostValue - lastSent[ordinal]) <= tolerance) {
+      // host caught up, older echoes are done.
+      sentMin[ordinal] = lastSent[ordinal];
+      sentMax[ordinal] = lastSent[ordinal];
+    }
+  }
+
+  /**
+   * A physical value is received, this method should be called after handlers are dispatched.
+   *
+   * @param ordinal ordinal of control
+   * @param value physical value
+   */
+  void move(int ordinal, double value) {
+    physicalValues[ordinal] = value;
+  }
+
+  /**
+   * Try to take over the target by a physical value, a value that passes is recorded as sent.
+   *
+   * @param ordinal ordinal of control
+   * @param value physical value
+   * @return true if picked up, the value should be set to the target.
+   */
+  boolean pickup(int ordinal, double value) {
+    if (!pickedUp[ordinal]) {
+      double host = hostValues[ordinal];
+      double prev = physicalValues[ordinal];
+      // an unknown host value can't be approached, the control takes over immediately.
+      // NaN of unknown previous value never crosses.
+      if (!Double.isNaN(host)
+          && Math.abs(value - host) > tolerance
+          && !((prev - host) * (value - host) <= 0.0)) {
+        return false;
+      }
+      pickedUp[ordinal] = true;
+    }
+    lastSent[ordinal] = value;
+    if (Double.isNaN(sentMin[ordinal])) {
+      sentMin[ordinal] = value;
+      sentMax[ordinal] = value;
+    } else {
+      sentMin[ordinal] = Math.min(sentMin[ordinal], value);
+      sentMax[ordinal] = Math.max(sentMax[ordinal], value);
+    }
+    return true;
+  }
+
+  private void clearSent(int ordinal) {
+    sentMin[ordinal] = Double.NaN;
+    sentMax[ordinal] = Double.NaN;
+    lastSent[ordinal] = Double.NaN;
+  }
+
+  private static double[] grow(double[] values, int length) {
+    int from = values.length;
+    double[] grown = Arrays.copyOf(values, length);
+    Arrays.fill(grown, from, length, Double.NaN);
+    return grown;
+  }
+}
@@ -1,3 +1,227 @@
 package com.github.jhorology.bitwig.utils;
 
-public class Beat {}
+import com.bitwig.extension.controller.api.SettableRangedValue;
+import com.bitwig.extension.controller.api.Transport;
+import com.github.jhorology.bitwig.utils.Hook.BooleanConsumer;
+import com.github.jhorology.bitwig.utils.Hook.Subscription;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Beat clock service.
+ *
+ * <p>Play position and tempo of Transport are subscribed once, the beat position is extrapolated
+ * between updates of host by the monotonic clock. Play position is a high-rate Value, its updates
+ * are coalesced by {@link Hook#flush()}. A beat pulse is on for {@link #PULSE_WIDTH} of each beat
+ * while playing, listeners are called only at edges of the pulse.
+ *
+ * <pre>
+ *   on  |__          __          __
+ *       |  |        |  |        |  |
+ *   off |  |________|  |________|  |______
+ *       beat        beat        beat
+ * </pre>
+ */
+public class Beat {
+  /** width of pulse in beats. */
+  public static final double PULSE_WIDTH = 0.25;
+
+  private static final double DEFAULT_TEMPO = 120.0;
+  // minimum interval of play position updates in milliseconds.
+  private static final int POSITION_INTERVAL = 50;
+  private static final double NANOS_PER_MINUTE = 60_000_000_000.0;
+  private static final long NANOS_PER_MILLI = 1_000_000L;
+
+  private static Clock clock;
+  private static SettableRangedValue tempoValue;
+  private static List<Subscription<?>> subscriptions;
+  private static List<BooleanConsumer> listeners;
+  private static TimingWheel.Timeout timeout;
+  // extrapolation origin
+  private static double anchorPosition;
+  private static long anchorTime;
+  private static double tempo;
+  private static boolean playing;
+  private static boolean pulseOn;
+  private static long nextEdgeTime;
+
+  private Beat() {}
+
+  /**
+   * initialize.
+   *
+   * <p>this method should be called at ControllerExtension#init(), after {@link Hook} and {@link
+   * Transition} are initialized.
+   *
+   * @param transport transport to follow
+   * @param clock clock to extrapolate beat position
+   */
+  public static void init(Transport transport, Clock clock) {
+    Beat.clock = clock;
+    tempoValue = transport.tempo().value();
+    subscriptions = new ArrayList<>();
+    listeners = new ArrayList<>();
+    timeout = new TimingWheel.Timeout(Beat::onEdge);
+    anchorPosition = 0.0;
+    anchorTime = clock.nanoTime();
+    tempo = DEFAULT_TEMPO;
+    playing = false;
+    pulseOn = true;
+    subscriptions.add(
+        Hook.subscribeDouble(transport.playPosition(), Beat::onPlayPosition, POSITION_INTERVAL));
+    // a change of normalized value notifies, the tempo is read in BPM from the raw value.
+    subscriptions.add(Hook.subscribeDouble(tempoValue, v -> onTempo()));
+    subscriptions.add(Hook.subscribeBoolean(transport.isPlaying(), Beat::onPlaying));
+  }
+
+  /**
+   * finalize.
+   *
+   * <p>this method should be called at ControllerExtension#exit(), before {@link Transition} is
+   * finalized.
+   */
+  public static void exit() {
+    Transition.wheel().cancel(timeout);
+    subscriptions.forEach(Subscription::unsubscribe);
+    subscriptions = null;
+    listeners.clear();
+    listeners = null;
+    timeout = null;
+    tempoValue = null;
+    clock = null;
+  }
+
+  /**
+   * Add a listener of beat pulse, the listener is called at edges of pulse.
+   *
+   * @param listener listener, true at start of pulse, false at end of pulse.
+   */
+  public static void addListener(BooleanConsumer listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Remove a listener of beat pulse.
+   *
+   * @param listener listener
+   */
+  public static void removeListener(BooleanConsumer listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Returns a current beat position extrapolated from the last update of host.
+   *
+   * @return position in beats
+   */
+  public static double position() {
+    return positionAt(clock.nanoTime());
+  }
+
+  /**
+   * Returns a phase in current beat.
+   *
+   * @return phase [0.0, 1.0)
+   */
+  public static double phase() {
+    double position = position();
+    return position - Math.floor(position);
+  }
+
+  /**
+   * Returns a current tempo.
+   *
+   * @return tempo in BPM
+   */
+  public static double tempo() {
+    return tempo;
+  }
+
+  /**
+   * Returns whether transport is playing.
+   *
+   * @return true if playing
+   */
+  public static boolean isPlaying() {
+    return playing;
+  }
+
+  /**
+   * Returns whether beat pulse is on, always true while transport is stopped.
+   *
+   * @return true if on
+   */
+  public static boolean isPulseOn() {
+    return pulseOn;
+  }
+
+  private static double positionAt(long time) {
+    if (!playing) {
+      return anchorPosition;
+    }
+    return anchorPosition + (time - anchorTime) * tempo / NANOS_PER_MINUTE;
+  }
+
+  private static void onPlayPosition(double position) {
+    anchorPosition = position;
+    anchorTime = clock.nanoTime();
+    update(anchorTime);
+  }
+
+  private static void onTempo() {
+    long now = clock.nanoTime();
+    anchorPosition = positionAt(now);
+    anchorTime = now;
+    tempo = tempoValue.getRaw();
+    update(now);
+  }
+
+  private static void onPlaying(boolean value) {
+    long now = clock.nanoTime();
+    anchorPosition = positionAt(now);
+    anchorTime = now;
+    playing = value;
+    update(now);
+  }
+
+  private static void onEdge() {
+    // the wheel has millisecond resolution, a wakeup slightly before the edge is snapped to it.
+    update(Math.max(clock.nanoTime(), nextEdgeTime));
+  }
+
+  private static void update(long time) {
+    if (!playing || tempo <= 0.0) {
+      Transition.wheel().cancel(timeout);
+      setPulse(true);
+      return;
+    }
+    double position = positionAt(time);
+    double beat = Math.floor(position);
+    double phase = position - beat;
+    double nextEdge;
+    if (phase < PULSE_WIDTH) {
+      setPulse(true);
+      nextEdge = beat + PULSE_WIDTH;
+    } else {
+      setPulse(false);
+      nextEdge = beat + 1.0;
+    }
+    nextEdgeTime = time + (long) Math.ceil((nextEdge - position) * NANOS_PER_MINUTE / tempo);
+    long delayNanos = nextEdgeTime - clock.nanoTime();
+    long delay = (delayNanos + NANOS_PER_MILLI - 1) / NANOS_PER_MILLI;
+    // an update of play position mostly lands on the same wakeup, it's kept as is.
+    if (!timeout.isPending() || timeout.getDeadline() != clock.millis() + delay) {
+      Transition.wheel().schedule(timeout, delay);
+    }
+  }
+
+  private static void setPulse(boolean on) {
+    if (pulseOn == on) {
+      return;
+    }
+    pulseOn = on;
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).accept(on);
+    }
+  }
+}
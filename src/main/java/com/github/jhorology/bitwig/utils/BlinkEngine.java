@@ -0,0 +1,159 @@
+package com.github.jhorology.bitwig.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared blink phases for a fixed set of members, e.g. LEDs of a device.
+ *
+ * <p>A phase is created per blink rate and is driven by a single globally synced {@link
+ * Transition}, members that subscribe the phase are held in a bitset. A member belongs to at most
+ * one phase, {@link #blink(int, int, int)} moves a member from previous phase, so a member never
+ * follows a stale phase. A phase without members is removed.
+ */
+public class BlinkEngine {
+  /** Listener of phase edges. */
+  @FunctionalInterface
+  public interface Listener {
+    /**
+     * Called for each member of a phase at edge of the phase, and when a member joins a running
+     * phase.
+     *
+     * @param member index of member
+     * @param on true if blink on
+     */
+    void onPhase(int member, boolean on);
+  }
+
+  private final Listener listener;
+  private final Phase[] memberPhases;
+  private final List<Phase> phases = new ArrayList<>();
+
+  /**
+   * Constructor.
+   *
+   * @param numMembers number of members
+   * @param listener listener of phase edges
+   */
+  public BlinkEngine(int numMembers, Listener listener) {
+    this.memberPhases = new Phase[numMembers];
+    this.listener = listener;
+  }
+
+  /**
+   * Start blinking a member, a member that already blinks is moved to the phase of new rate.
+   *
+   * @param member index of member
+   * @param onDuration on duration in milliseconds
+   * @param offDuration off duration in milliseconds
+   */
+  public void blink(int member, int onDuration, int offDuration) {
+    Phase phase = memberPhases[member];
+    if (phase == null || phase.onDuration != onDuration || phase.offDuration != offDuration) {
+      stop(member);
+      phase = phase(onDuration, offDuration);
+      phase.add(member);
+      memberPhases[member] = phase;
+    }
+    // a new phase notifies all members at first update.
+    if (phase.running) {
+      listener.onPhase(member, phase.on);
+    }
+  }
+
+  /**
+   * Stop blinking a member, the listener is not called.
+   *
+   * @param member index of member
+   */
+  public void stop(int member) {
+    Phase phase = memberPhases[member];
+    if (phase == null) {
+      return;
+    }
+    memberPhases[member] = null;
+    if (phase.remove(member)) {
+      phase.transition.remove();
+      phases.remove(phase);
+    }
+  }
+
+  /** Stop all members. */
+  public void clear() {
+    for (int i = 0; i < memberPhases.length; i++) {
+      stop(i);
+    }
+  }
+
+  /**
+   * Returns whether a member is blinking.
+   *
+   * @param member index of member
+   * @return true if blinking
+   */
+  public boolean isBlinking(int member) {
+    return memberPhases[member] != null;
+  }
+
+  /**
+   * Returns a number of active phases.
+   *
+   * @return number of phases
+   */
+  public int getPhaseCount() {
+    return phases.size();
+  }
+
+  private Phase phase(int onDuration, int offDuration) {
+    for (int i = 0; i < phases.size(); i++) {
+      Phase phase = phases.get(i);
+      if (phase.onDuration == onDuration && phase.offDuration == offDuration) {
+        return phase;
+      }
+    }
+    Phase phase = new Phase(onDuration, offDuration, memberPhases.length);
+    phases.add(phase);
+    return phase;
+  }
+
+  private class Phase {
+    private final int onDuration;
+    private final int offDuration;
+    private final long[] members;
+    private final Transition transition;
+    private int size;
+    private boolean running;
+    private boolean on;
+
+    private Phase(int onDuration, int offDuration, int numMembers) {
+      this.onDuration = onDuration;
+      this.offDuration = offDuration;
+      this.members = new long[(numMembers + 63) >>> 6];
+      this.transition = Transition.blink(onDuration, offDuration, this::onValue);
+    }
+
+    private void add(int member) {
+      members[member >>> 6] |= 1L << member;
+      size++;
+    }
+
+    // returns true if no members remain.
+    private boolean remove(int member) {
+      members[member >>> 6] &= ~(1L << member);
+      return --size == 0;
+    }
+
+    private void onValue(double value) {
+      running = true;
+      on = value == 1.0;
+      for (int i = 0; i < members.length; i++) {
+        long bits = members[i];
+        while (bits != 0) {
+          int bit = Long.numberOfTrailingZeros(bits);
+          bits &= bits - 1;
+          listener.onPhase((i << 6) + bit, on);
+        }
+      }
+    }
+  }
+}
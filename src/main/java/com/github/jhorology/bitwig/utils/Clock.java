@@ -0,0 +1,29 @@
+package com.github.jhorology.bitwig.utils;
+
+/**
+ * A monotonic clock.
+ *
+ * <p>Time-based logic should read time from a Clock instead of {@code System.currentTimeMillis()},
+ * so that a manual clock can be swapped in.
+ */
+@FunctionalInterface
+public interface Clock {
+  /** a clock backed by {@code System.nanoTime()}. */
+  Clock SYSTEM = System::nanoTime;
+
+  /**
+   * Returns a current time, the origin is arbitrary.
+   *
+   * @return time in nanoseconds
+   */
+  long nanoTime();
+
+  /**
+   * Returns a current time, the origin is arbitrary.
+   *
+   * @return time in milliseconds
+   */
+  default long millis() {
+    return nanoTime() / 1_000_000L;
+  }
+}
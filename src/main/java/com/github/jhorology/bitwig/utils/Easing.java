@@ -0,0 +1,214 @@
+package com.github.jhorology.bitwig.utils;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Easing functions for {@link Transition}.
+ *
+ * <p>All functions map t=[0.0, 1.0] to a value, fn(0.0) is a start value and fn(1.0) is an end
+ * value. A continuous function can be baked into a lookup table by {@link
+ * #bake(DoubleUnaryOperator, int)}, evaluation of a baked function is an array read and a linear
+ * interpolation.
+ */
+public final class Easing {
+  /** default size of lookup table. */
+  public static final int DEFAULT_TABLE_SIZE = 256;
+
+  /** 1.0 while in transition, 0.0 at the end. */
+  public static final DoubleUnaryOperator PULSE = t -> t == 1.0 ? 0.0 : 1.0;
+
+  public static final DoubleUnaryOperator LINEAR = t -> t;
+
+  public static final DoubleUnaryOperator QUAD_IN = t -> t * t;
+  public static final DoubleUnaryOperator QUAD_OUT = t -> t * (2.0 - t);
+  public static final DoubleUnaryOperator QUAD_IN_OUT =
+      t -> t < 0.5 ? 2.0 * t * t : -1.0 + (4.0 - 2.0 * t) * t;
+
+  public static final DoubleUnaryOperator CUBIC_IN = t -> t * t * t;
+  public static final DoubleUnaryOperator CUBIC_OUT =
+      t -> {
+        double u = t - 1.0;
+        return u * u * u + 1.0;
+      };
+  public static final DoubleUnaryOperator CUBIC_IN_OUT =
+      t -> {
+        if (t < 0.5) {
+          return 4.0 * t * t * t;
+        }
+        double u = 2.0 * t - 2.0;
+        return 0.5 * u * u * u + 1.0;
+      };
+
+  public static final DoubleUnaryOperator EXPO_IN =
+      t -> t == 0.0 ? 0.0 : Math.pow(2.0, 10.0 * (t - 1.0));
+  public static final DoubleUnaryOperator EXPO_OUT =
+      t -> t == 1.0 ? 1.0 : 1.0 - Math.pow(2.0, -10.0 * t);
+  public static final DoubleUnaryOperator EXPO_IN_OUT =
+      t -> {
+        if (t == 0.0 || t == 1.0) {
+          return t;
+        }
+        return t < 0.5
+            ? 0.5 * Math.pow(2.0, 20.0 * t - 10.0)
+            : 1.0 - 0.5 * Math.pow(2.0, -20.0 * t + 10.0);
+      };
+
+  public static final DoubleUnaryOperator SINE_IN = t -> 1.0 - Math.cos(t * Math.PI / 2.0);
+  public static final DoubleUnaryOperator SINE_OUT = t -> Math.sin(t * Math.PI / 2.0);
+  public static final DoubleUnaryOperator SINE_IN_OUT = t -> 0.5 * (1.0 - Math.cos(Math.PI * t));
+
+  /** same as CSS "ease". */
+  public static final DoubleUnaryOperator EASE = cubicBezier(0.25, 0.1, 0.25, 1.0);
+
+  private Easing() {}
+
+  /**
+   * Returns a function reversed in time, fn(1.0 - t).
+   *
+   * @param fn function
+   * @return reversed function
+   */
+  public static DoubleUnaryOperator reverse(DoubleUnaryOperator fn) {
+    return t -> fn.applyAsDouble(1.0 - t);
+  }
+
+  /**
+   * Returns a cubic-bezier function, control points are same as CSS cubic-bezier(x1, y1, x2, y2).
+   *
+   * @param x1 x of first control point, [0.0, 1.0]
+   * @param y1 y of first control point
+   * @param x2 x of second control point, [0.0, 1.0]
+   * @param y2 y of second control point
+   * @return function
+   */
+  public static DoubleUnaryOperator cubicBezier(double x1, double y1, double x2, double y2) {
+    if (x1 < 0.0 || x1 > 1.0 || x2 < 0.0 || x2 > 1.0) {
+      throw new IllegalArgumentException("x of control points should be in range [0.0, 1.0].");
+    }
+    // polynomial coefficients, B(s) = ((a * s + b) * s + c) * s
+    double cx = 3.0 * x1;
+    double bx = 3.0 * (x2 - x1) - cx;
+    double ax = 1.0 - cx - bx;
+    double cy = 3.0 * y1;
+    double by = 3.0 * (y2 - y1) - cy;
+    double ay = 1.0 - cy - by;
+    return t -> {
+      if (t <= 0.0 || t >= 1.0) {
+        return t <= 0.0 ? 0.0 : 1.0;
+      }
+      // solve x(s) = t by Newton-Raphson, fallback to bisection.
+      double s = t;
+      for (int i = 0; i < 8; i++) {
+        double x = ((ax * s + bx) * s + cx) * s - t;
+        if (Math.abs(x) < 1e-7) {
+          return ((ay * s + by) * s + cy) * s;
+        }
+        double dx = (3.0 * ax * s + 2.0 * bx) * s + cx;
+        if (Math.abs(dx) < 1e-6) {
+          break;
+        }
+        s -= x / dx;
+      }
+      double lo = 0.0;
+      double hi = 1.0;
+      s = t;
+      for (int i = 0; i < 32; i++) {
+        double x = ((ax * s + bx) * s + cx) * s;
+        if (Math.abs(x - t) < 1e-7) {
+          break;
+        }
+        if (x < t) {
+          lo = s;
+        } else {
+          hi = s;
+        }
+        s = (lo + hi) / 2.0;
+      }
+      return ((ay * s + by) * s + cy) * s;
+    };
+  }
+
+  /**
+   * Returns a stair function of equal steps, fn(0.0) = 0.0 and fn(1.0) = 1.0.
+   *
+   * @param steps number of steps
+   * @return function
+   */
+  public static DoubleUnaryOperator steps(int steps) {
+    if (steps <= 0) {
+      throw new IllegalArgumentException("steps should be positive.");
+    }
+    return t -> t >= 1.0 ? 1.0 : Math.floor(Math.max(t, 0.0) * steps) / steps;
+  }
+
+  /**
+   * Returns a stair function of given levels, the transition is divided equally by levels.
+   *
+   * @param levels value of each step
+   * @return function
+   */
+  public static DoubleUnaryOperator stair(double... levels) {
+    if (levels.length == 0) {
+      throw new IllegalArgumentException("levels should not be empty.");
+    }
+    double[] table = levels.clone();
+    return t -> table[Math.min(Math.max((int) (t * table.length), 0), table.length - 1)];
+  }
+
+  /**
+   * Bake a function into a lookup table of {@link #DEFAULT_TABLE_SIZE}.
+   *
+   * @param fn continuous function
+   * @return baked function
+   */
+  public static DoubleUnaryOperator bake(DoubleUnaryOperator fn) {
+    return bake(fn, DEFAULT_TABLE_SIZE);
+  }
+
+  /**
+   * Bake a function into a lookup table, values between samples are interpolated linearly.
+   *
+   * <p>a step function should not be baked, edges are smoothed by interpolation.
+   *
+   * @param fn continuous function
+   * @param size number of intervals of the table
+   * @return baked function
+   */
+  public static DoubleUnaryOperator bake(DoubleUnaryOperator fn, int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("size should be positive.");
+    }
+    if (fn instanceof Table) {
+      return fn;
+    }
+    double[] table = new double[size + 1];
+    for (int i = 0; i <= size; i++) {
+      table[i] = fn.applyAsDouble((double) i / size);
+    }
+    return new Table(table);
+  }
+
+  private static final class Table implements DoubleUnaryOperator {
+    private final double[] table;
+    private final int size;
+
+    private Table(double[] table) {
+      this.table = table;
+      this.size = table.length - 1;
+    }
+
+    @Override
+    public double applyAsDouble(double t) {
+      if (t <= 0.0) {
+        return table[0];
+      }
+      if (t >= 1.0) {
+        return table[size];
+      }
+      double x = t * size;
+      int i = (int) x;
+      double a = table[i];
+      return a + (table[i + 1] - a) * (x - i);
+    }
+  }
+}
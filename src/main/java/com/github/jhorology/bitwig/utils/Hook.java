@@ -10,31 +10,140 @@ import com.bitwig.extension.callback.ObjectValueChangedCallback;
 import com.bitwig.extension.callback.StringArrayValueChangedCallback;
 import com.bitwig.extension.callback.StringValueChangedCallback;
 import com.bitwig.extension.callback.ValueChangedCallback;
+import com.bitwig.extension.controller.api.ControllerHost;
 import com.bitwig.extension.controller.api.Value;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.function.Supplier;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Simple subscription model. */
+/**
+ * Simple subscription model.
+ *
+ * <p>A Value is subscribed while it has at least one subscription. When the last subscription is
+ * unsubscribed, the Value is released after a grace period if nothing re-subscribes to it, so that
+ * quick layer toggles don't make Bitwig resend the state. Bitwig doesn't re-notify subscribers that
+ * are re-added within the grace period, instead the last value is delivered to them by Hook.
+ *
+ * <p>A coalesced subscription keeps only the latest value, and delivers it at most once per {@link
+ * #flush()} with a minimum interval. it's suitable for high-rate Values like play position.
+ *
+ * <p>Optionally, callbacks of Values can be instrumented to find hot Values. Instrumentation is
+ * applied when a Value is observed first time, so it costs nothing when disabled.
+ */
 @SuppressWarnings("unchecked")
 public class Hook {
   private static final Logger LOG = LoggerFactory.getLogger(Hook.class);
-  private static HashMap<Value<?>, List<SubscriptionImpl<?>>> hooks;
+  private static HashMap<Value<?>, Subscriptions> hooks;
+  private static ControllerHost host;
+  private static int releaseDelay;
+  private static Clock clock = Clock.SYSTEM;
+  private static boolean instrumented;
+  private static List<CoalescedSubscription<?>> pending = new ArrayList<>();
+  private static List<CoalescedSubscription<?>> flushing = new ArrayList<>();
+  private static Object dumpTask;
 
   /** An interface of unsubscribable subscription of Value object. */
   public static interface Subscription<T> extends Supplier<T> {
     void unsubscribe();
   }
 
-  /** An interface o */
-  private static class SubscriptionImpl<T> implements Subscription<T>, Consumer<T> {
+  /** A boolean version of Consumer, to avoid boxing. */
+  @FunctionalInterface
+  public static interface BooleanConsumer {
+    void accept(boolean value);
+  }
+
+  /** A color version of Consumer, to avoid allocation. */
+  @FunctionalInterface
+  public static interface ColorConsumer {
+    void accept(float red, float green, float blue);
+  }
+
+  /** Subscriptions of a Value. */
+  private static class Subscriptions extends ArrayList<SubscriptionImpl<?>> {
+    private static final long serialVersionUID = 1L;
+    private static final int NONE = 0;
+    private static final int OBJECT = 1;
+    private static final int BOOLEAN = 2;
+    private static final int DOUBLE = 3;
+    private static final int INTEGER = 4;
+    private static final int COLOR = 5;
+    private boolean subscribed;
+    // incremented to cancel a pending release.
+    private int generation;
+    // instrumentation
+    private long callbacks;
+    private long deliveries;
+    private long nanos;
+
+    // last color, shared by subscribers of Color object.
+    private Color color;
+
+    // last value, to deliver to subscribers re-added within the grace period.
+    private int kind = NONE;
+    private Object objectValue;
+    private boolean booleanValue;
+    private int intValue;
+    private float red;
+    private float green;
+    private float blue;
+
+    // last value of double Value, NaN if not delivered yet.
+    private double doubleValue = Double.NaN;
+
+    private void record(long elapsed) {
+      callbacks++;
+      deliveries += size();
+      nanos += elapsed;
+    }
+
+    private Color color(float red, float green, float blue) {
+      if (color == null
+          || (float) color.getRed() != red
+          || (float) color.getGreen() != green
+          || (float) color.getBlue() != blue) {
+        color = Color.fromRGB(red, green, blue);
+      }
+      return color;
+    }
+
+    private void replay(SubscriptionImpl<?> subscription) {
+      switch (kind) {
+        case OBJECT:
+          ((SubscriptionImpl<Object>) subscription).accept(objectValue);
+          break;
+        case BOOLEAN:
+          subscription.accept(booleanValue);
+          break;
+        case DOUBLE:
+          subscription.accept(doubleValue);
+          break;
+        case INTEGER:
+          subscription.accept(intValue);
+          break;
+        case COLOR:
+          subscription.accept(red, green, blue, this);
+          break;
+        default:
+          // not delivered yet
+      }
+    }
+  }
+
+  /** An implementation of subscription, primitive values are boxed to deliver to consumer. */
+  private static class SubscriptionImpl<T> implements Subscription<T> {
     private final Value<?> value;
     private final Consumer<T> consumer;
     private T currentValue;
@@ -46,7 +155,7 @@ public class Hook {
 
     @Override
     public void unsubscribe() {
-      List<SubscriptionImpl<?>> subscriptions = hooks.get(value);
+      Subscriptions subscriptions = hooks.get(value);
 
       if (subscriptions == null) {
         LOG.error("unsubscribe(): value[{}] not found!!", value);
@@ -67,16 +176,31 @@ public class Hook {
           subscriptions.size());
 
       if (subscriptions.isEmpty()) {
-        value.unsubscribe();
+        release(value, subscriptions);
       }
     }
 
-    @Override
-    public void accept(T currentValue) {
+    void accept(T currentValue) {
       consumer.accept(currentValue);
       this.currentValue = currentValue;
     }
 
+    void accept(boolean currentValue) {
+      accept((T) Boolean.valueOf(currentValue));
+    }
+
+    void accept(double currentValue) {
+      accept((T) Double.valueOf(currentValue));
+    }
+
+    void accept(int currentValue) {
+      accept((T) Integer.valueOf(currentValue));
+    }
+
+    void accept(float red, float green, float blue, Subscriptions owner) {
+      accept((T) owner.color(red, green, blue));
+    }
+
     /**
      * Gets a result.
      *
@@ -88,127 +212,692 @@ public class Hook {
     }
   }
 
+  /** A subscription that delivers a boolean value without boxing. */
+  private static class BooleanSubscription extends SubscriptionImpl<Boolean> {
+    private final BooleanConsumer consumer;
+    private boolean currentValue;
+
+    private BooleanSubscription(Value<?> value, BooleanConsumer consumer) {
+      super(value, null);
+      this.consumer = consumer;
+    }
+
+    @Override
+    void accept(boolean currentValue) {
+      consumer.accept(currentValue);
+      this.currentValue = currentValue;
+    }
+
+    @Override
+    public Boolean get() {
+      return currentValue;
+    }
+  }
+
+  /** A subscription that delivers a double value without boxing. */
+  private static class DoubleSubscription extends SubscriptionImpl<Double> {
+    private final DoubleConsumer consumer;
+    private double currentValue;
+
+    private DoubleSubscription(Value<?> value, DoubleConsumer consumer) {
+      super(value, null);
+      this.consumer = consumer;
+    }
+
+    @Override
+    void accept(double currentValue) {
+      consumer.accept(currentValue);
+      this.currentValue = currentValue;
+    }
+
+    @Override
+    public Double get() {
+      return currentValue;
+    }
+  }
+
+  /** A subscription that delivers an integer value without boxing. */
+  private static class IntegerSubscription extends SubscriptionImpl<Integer> {
+    private final IntConsumer consumer;
+    private int currentValue;
+
+    private IntegerSubscription(Value<?> value, IntConsumer consumer) {
+      super(value, null);
+      this.consumer = consumer;
+    }
+
+    @Override
+    void accept(int currentValue) {
+      consumer.accept(currentValue);
+      this.currentValue = currentValue;
+    }
+
+    @Override
+    public Integer get() {
+      return currentValue;
+    }
+  }
+
+  /** A subscription that delivers a color value as primitive RGB. */
+  private static class ColorSubscription extends SubscriptionImpl<Color> {
+    private final ColorConsumer consumer;
+    private float red;
+    private float green;
+    private float blue;
+    // created on demand, and kept until the value changes.
+    private Color color;
+
+    private ColorSubscription(Value<?> value, ColorConsumer consumer) {
+      super(value, null);
+      this.consumer = consumer;
+    }
+
+    @Override
+    void accept(float red, float green, float blue, Subscriptions owner) {
+      consumer.accept(red, green, blue);
+      if (this.red != red || this.green != green || this.blue != blue) {
+        this.red = red;
+        this.green = green;
+        this.blue = blue;
+        color = null;
+      }
+    }
+
+    @Override
+    public Color get() {
+      if (color == null) {
+        color = Color.fromRGB(red, green, blue);
+      }
+      return color;
+    }
+  }
+
+  /** A subscription that delivers only the latest value at flush. */
+  private static class CoalescedSubscription<T> extends SubscriptionImpl<T> {
+    private static final int OBJECT = 0;
+    private static final int BOOLEAN = 1;
+    private static final int DOUBLE = 2;
+    private static final int INTEGER = 3;
+    private final SubscriptionImpl<T> delegate;
+    private final long minInterval;
+    private int kind;
+    private T objectValue;
+    private boolean booleanValue;
+    private double doubleValue;
+    private int intValue;
+    private boolean pending;
+    private long lastDelivered = Long.MIN_VALUE;
+
+    private CoalescedSubscription(SubscriptionImpl<T> delegate, long minInterval) {
+      super(delegate.value, null);
+      this.delegate = delegate;
+      this.minInterval = minInterval;
+    }
+
+    @Override
+    public void unsubscribe() {
+      super.unsubscribe();
+      if (pending) {
+        pending = false;
+        Hook.pending.remove(this);
+      }
+    }
+
+    @Override
+    void accept(T currentValue) {
+      objectValue = currentValue;
+      mark(OBJECT);
+    }
+
+    @Override
+    void accept(boolean currentValue) {
+      booleanValue = currentValue;
+      mark(BOOLEAN);
+    }
+
+    @Override
+    void accept(double currentValue) {
+      doubleValue = currentValue;
+      mark(DOUBLE);
+    }
+
+    @Override
+    void accept(int currentValue) {
+      intValue = currentValue;
+      mark(INTEGER);
+    }
+
+    private void mark(int kind) {
+      this.kind = kind;
+      if (!pending) {
+        pending = true;
+        Hook.pending.add(this);
+      }
+    }
+
+    private boolean isDue(long now) {
+      return lastDelivered == Long.MIN_VALUE || now - lastDelivered >= minInterval;
+    }
+
+    private void deliver(long now) {
+      pending = false;
+      lastDelivered = now;
+      switch (kind) {
+        case BOOLEAN:
+          delegate.accept(booleanValue);
+          break;
+        case DOUBLE:
+          delegate.accept(doubleValue);
+          break;
+        case INTEGER:
+          delegate.accept(intValue);
+          break;
+        default:
+          delegate.accept(objectValue);
+      }
+    }
+
+    @Override
+    public T get() {
+      return delegate.get();
+    }
+  }
+
+  /** initialize, Values are released immediately when no subscriptions remain. */
   public static void init() {
+    init(null, 0);
+  }
+
+  /**
+   * initialize.
+   *
+   * @param host the host to schedule release of Values.
+   * @param releaseDelay grace period in milliseconds before an unused Value is released.
+   */
+  public static void init(ControllerHost host, int releaseDelay) {
+    init(host, releaseDelay, Clock.SYSTEM);
+  }
+
+  /**
+   * initialize.
+   *
+   * @param host the host to schedule release of Values.
+   * @param releaseDelay grace period in milliseconds before an unused Value is released.
+   * @param clock clock to pace coalesced subscriptions.
+   */
+  public static void init(ControllerHost host, int releaseDelay, Clock clock) {
     hooks = new HashMap<>();
+    Hook.clock = clock;
+    pending.clear();
+    Hook.host = host;
+    Hook.releaseDelay = host != null ? releaseDelay : 0;
   }
 
   public static void exit() {
     hooks.clear();
     hooks = null;
+    pending.clear();
+    host = null;
+    clock = Clock.SYSTEM;
+    instrumented = false;
+    dumpTask = null;
   }
 
-  private static interface CallbackFactory<T extends ValueChangedCallback>
-      extends Function<List<SubscriptionImpl<?>>, T> {}
-  ;
+  /**
+   * Deliver the latest values of coalesced subscriptions.
+   *
+   * <p>this method should be called at every frame, e.g. ControllerExtension#flush().
+   */
+  public static void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    long now = clock.millis();
+    List<CoalescedSubscription<?>> list = pending;
+    pending = flushing;
+    flushing = list;
+    for (int i = 0; i < list.size(); i++) {
+      CoalescedSubscription<?> subscription = list.get(i);
+      if (!subscription.pending) {
+        // unsubscribed while flushing
+        continue;
+      }
+      if (subscription.isDue(now)) {
+        subscription.deliver(now);
+      } else {
+        pending.add(subscription);
+      }
+    }
+    list.clear();
+  }
+
+  /**
+   * Returns whether coalesced values are waiting to be delivered by {@link #flush()}.
+   *
+   * @return true if pending
+   */
+  public static boolean isPending() {
+    return !pending.isEmpty();
+  }
+
+  /**
+   * Enable instrumentation of callbacks, counts callbacks, fan-out and time spent in consumers per
+   * Value. this method should be called before subscribing Values.
+   *
+   * @param topN number of Values to dump periodically.
+   * @param dumpInterval interval in milliseconds to dump hot Values, 0 means on demand only.
+   */
+  public static void instrument(int topN, int dumpInterval) {
+    instrumented = true;
+    if (dumpInterval > 0 && host != null) {
+      Object task = new Object();
+      dumpTask = task;
+      dumpPeriodically(task, topN, dumpInterval);
+    }
+  }
+
+  /**
+   * Log the top-N hottest Values ordered by time spent in consumers.
+   *
+   * @param topN number of Values
+   */
+  public static void dumpHotValues(int topN) {
+    if (!instrumented) {
+      LOG.warn("dumpHotValues(): instrumentation is disabled.");
+      return;
+    }
+    LOG.info("hot values top {}:", topN);
+    hooks.entrySet().stream()
+        .filter(e -> e.getValue().callbacks > 0)
+        .sorted(
+            Comparator.comparingLong((Map.Entry<Value<?>, Subscriptions> e) -> e.getValue().nanos)
+                .reversed())
+        .limit(topN)
+        .forEach(
+            e -> {
+              Subscriptions s = e.getValue();
+              LOG.info(
+                  "  value[{}] callbacks:{} fan-out:{} time:{}us",
+                  e.getKey(),
+                  s.callbacks,
+                  s.deliveries / (double) s.callbacks,
+                  s.nanos / 1000);
+            });
+  }
+
+  private static void dumpPeriodically(Object task, int topN, int dumpInterval) {
+    host.scheduleTask(
+        () -> {
+          if (dumpTask == task) {
+            dumpHotValues(topN);
+            dumpPeriodically(task, topN, dumpInterval);
+          }
+        },
+        dumpInterval);
+  }
+
+  /** A factory of callback, and of instrumented wrapper of it. */
+  private static final class CallbackFactory<T extends ValueChangedCallback> {
+    private final Function<Subscriptions, T> factory;
+    private final BiFunction<T, Subscriptions, T> instrument;
+
+    private CallbackFactory(
+        Function<Subscriptions, T> factory, BiFunction<T, Subscriptions, T> instrument) {
+      this.factory = factory;
+      this.instrument = instrument;
+    }
+
+    private T create(Subscriptions subscriptions) {
+      T callback = factory.apply(subscriptions);
+      return instrumented ? instrument.apply(callback, subscriptions) : callback;
+    }
+  }
 
   private static final List<Pair<Class<? extends ValueChangedCallback>, CallbackFactory<?>>>
       CALLBACK_FACTORIES = new ArrayList<>();
 
+  private static <T extends ValueChangedCallback> void register(
+      Class<T> type,
+      Function<Subscriptions, T> factory,
+      BiFunction<T, Subscriptions, T> instrument) {
+    CALLBACK_FACTORIES.add(new ImmutablePair<>(type, new CallbackFactory<>(factory, instrument)));
+  }
+
   static {
-    CALLBACK_FACTORIES.add(
-        new ImmutablePair<>(
-            BooleanValueChangedCallback.class,
-            list ->
-                (BooleanValueChangedCallback)
-                    v -> list.forEach(s -> ((SubscriptionImpl<Boolean>) s).accept(v))));
-    CALLBACK_FACTORIES.add(
-        new ImmutablePair<>(
-            ColorValueChangedCallback.class,
-            list ->
-                (ColorValueChangedCallback)
-                    (r, g, b) ->
-                        list.forEach(
-                            s -> ((SubscriptionImpl<Color>) s).accept(Color.fromRGB(r, g, b)))));
-    CALLBACK_FACTORIES.add(
-        new ImmutablePair<>(
-            DoubleValueChangedCallback.class,
-            list ->
-                (DoubleValueChangedCallback)
-                    v -> list.forEach(s -> ((SubscriptionImpl<Double>) s).accept(v))));
-    CALLBACK_FACTORIES.add(
-        new ImmutablePair<>(
-            EnumValueChangedCallback.class,
-            list ->
-                (EnumValueChangedCallback)
-                    v -> list.forEach(s -> ((SubscriptionImpl<String>) s).accept(v))));
-    CALLBACK_FACTORIES.add(
-        new ImmutablePair<>(
-            IntegerValueChangedCallback.class,
-            list ->
-                (IntegerValueChangedCallback)
-                    v -> list.forEach(s -> ((SubscriptionImpl<Integer>) s).accept(v))));
-    CALLBACK_FACTORIES.add(
-        new ImmutablePair<>(
-            StringArrayValueChangedCallback.class,
-            list ->
-                (StringArrayValueChangedCallback)
-                    v -> list.forEach(s -> ((SubscriptionImpl<String[]>) s).accept(v))));
-    CALLBACK_FACTORIES.add(
-        new ImmutablePair<>(
-            StringValueChangedCallback.class,
-            list ->
-                (StringValueChangedCallback)
-                    v -> list.forEach(s -> ((SubscriptionImpl<String>) s).accept(v))));
-    CALLBACK_FACTORIES.add(
-        new ImmutablePair<>(
-            ObjectValueChangedCallback.class,
-            list ->
-                (ObjectValueChangedCallback<?>)
-                    v -> list.forEach(s -> ((SubscriptionImpl<Object>) s).accept(v))));
+    register(
+        BooleanValueChangedCallback.class,
+        list ->
+            v -> {
+              list.kind = Subscriptions.BOOLEAN;
+              list.booleanValue = v;
+              for (int i = 0; i < list.size(); i++) {
+                list.get(i).accept(v);
+              }
+            },
+        (callback, list) ->
+            v -> {
+              long start = System.nanoTime();
+              callback.valueChanged(v);
+              list.record(System.nanoTime() - start);
+            });
+    register(
+        ColorValueChangedCallback.class,
+        list ->
+            (r, g, b) -> {
+              list.kind = Subscriptions.COLOR;
+              list.red = r;
+              list.green = g;
+              list.blue = b;
+              for (int i = 0; i < list.size(); i++) {
+                list.get(i).accept(r, g, b, list);
+              }
+            },
+        (callback, list) ->
+            (r, g, b) -> {
+              long start = System.nanoTime();
+              callback.valueChanged(r, g, b);
+              list.record(System.nanoTime() - start);
+            });
+    register(
+        DoubleValueChangedCallback.class,
+        list ->
+            v -> {
+              list.kind = Subscriptions.DOUBLE;
+              list.doubleValue = v;
+              for (int i = 0; i < list.size(); i++) {
+                list.get(i).accept(v);
+              }
+            },
+        (callback, list) ->
+            v -> {
+              long start = System.nanoTime();
+              callback.valueChanged(v);
+              list.record(System.nanoTime() - start);
+            });
+    register(
+        EnumValueChangedCallback.class,
+        list ->
+            v -> {
+              list.kind = Subscriptions.OBJECT;
+              list.objectValue = v;
+              list.forEach(s -> ((SubscriptionImpl<String>) s).accept(v));
+            },
+        (callback, list) ->
+            v -> {
+              long start = System.nanoTime();
+              callback.valueChanged(v);
+              list.record(System.nanoTime() - start);
+            });
+    register(
+        IntegerValueChangedCallback.class,
+        list ->
+            v -> {
+              list.kind = Subscriptions.INTEGER;
+              list.intValue = v;
+              for (int i = 0; i < list.size(); i++) {
+                list.get(i).accept(v);
+              }
+            },
+        (callback, list) ->
+            v -> {
+              long start = System.nanoTime();
+              callback.valueChanged(v);
+              list.record(System.nanoTime() - start);
+            });
+    register(
+        StringArrayValueChangedCallback.class,
+        list ->
+            v -> {
+              list.kind = Subscriptions.OBJECT;
+              list.objectValue = v;
+              list.forEach(s -> ((SubscriptionImpl<String[]>) s).accept(v));
+            },
+        (callback, list) ->
+            v -> {
+              long start = System.nanoTime();
+              callback.valueChanged(v);
+              list.record(System.nanoTime() - start);
+            });
+    register(
+        StringValueChangedCallback.class,
+        list ->
+            v -> {
+              list.kind = Subscriptions.OBJECT;
+              list.objectValue = v;
+              list.forEach(s -> ((SubscriptionImpl<String>) s).accept(v));
+            },
+        (callback, list) ->
+            v -> {
+              long start = System.nanoTime();
+              callback.valueChanged(v);
+              list.record(System.nanoTime() - start);
+            });
+    register(
+        ObjectValueChangedCallback.class,
+        list ->
+            v -> {
+              list.kind = Subscriptions.OBJECT;
+              list.objectValue = v;
+              list.forEach(s -> ((SubscriptionImpl<Object>) s).accept(v));
+            },
+        (callback, list) ->
+            v -> {
+              long start = System.nanoTime();
+              callback.valueChanged(v);
+              list.record(System.nanoTime() - start);
+            });
   }
 
+  // concrete class of Value -> factory, resolved by reflection only once per class.
+  private static final ClassValue<CallbackFactory<?>> FACTORY_CACHE =
+      new ClassValue<CallbackFactory<?>>() {
+        @Override
+        protected CallbackFactory<?> computeValue(Class<?> type) {
+          return CALLBACK_FACTORIES.stream()
+              .filter(
+                  p -> {
+                    try {
+                      type.getMethod("addValueObserver", p.getLeft());
+                      return true;
+                    } catch (NoSuchMethodException | SecurityException ex) {
+                      return false;
+                    }
+                  })
+              .map(Pair::getRight)
+              .findFirst()
+              .orElse(null);
+        }
+      };
+
   public static <T extends ValueChangedCallback> void use(Value<T> value) {
-    CallbackFactory<T> factory = getCallbackFactory(value);
-    if (factory == null) {
-      throw new UnsupportedOperationException("Unsupported value type [" + value + "]");
-    }
-    hooks.computeIfAbsent(
-        value,
-        k -> {
-          List<SubscriptionImpl<?>> list = new ArrayList<>();
-          value.addValueObserver(factory.apply(list));
-          return list;
-        });
+    observe(value);
   }
 
   public static <T extends ValueChangedCallback, C> Subscription<C> subscribe(
       Value<T> value, Consumer<C> consumer) {
-    CallbackFactory<T> factory = getCallbackFactory(value);
-    if (factory == null) {
-      throw new UnsupportedOperationException("Unsupported value type [" + value + "]");
+    return add(observe(value), new SubscriptionImpl<>(value, consumer));
+  }
+
+  /**
+   * Subscribe a value, the latest value is delivered at most once per {@link #flush()}.
+   *
+   * @param value a value to subscribe
+   * @param consumer a consumer of value
+   * @param minInterval minimum interval of delivery in milliseconds
+   * @return a subscription
+   */
+  public static <T extends ValueChangedCallback, C> Subscription<C> subscribe(
+      Value<T> value, Consumer<C> consumer, int minInterval) {
+    return add(
+        observe(value),
+        new CoalescedSubscription<>(new SubscriptionImpl<>(value, consumer), minInterval));
+  }
+
+  /**
+   * Subscribe a boolean value without boxing.
+   *
+   * @param value a value to subscribe
+   * @param consumer a consumer of value
+   * @return a subscription
+   */
+  public static Subscription<Boolean> subscribeBoolean(
+      Value<BooleanValueChangedCallback> value, BooleanConsumer consumer) {
+    return add(observe(value), new BooleanSubscription(value, consumer));
+  }
+
+  /**
+   * Subscribe a boolean value without boxing, the latest value is delivered at most once per {@link
+   * #flush()}.
+   *
+   * @param value a value to subscribe
+   * @param consumer a consumer of value
+   * @param minInterval minimum interval of delivery in milliseconds
+   * @return a subscription
+   */
+  public static Subscription<Boolean> subscribeBoolean(
+      Value<BooleanValueChangedCallback> value, BooleanConsumer consumer, int minInterval) {
+    return add(
+        observe(value),
+        new CoalescedSubscription<>(new BooleanSubscription(value, consumer), minInterval));
+  }
+
+  /**
+   * Subscribe a double value without boxing.
+   *
+   * @param value a value to subscribe
+   * @param consumer a consumer of value
+   * @return a subscription
+   */
+  public static Subscription<Double> subscribeDouble(
+      Value<DoubleValueChangedCallback> value, DoubleConsumer consumer) {
+    return add(observe(value), new DoubleSubscription(value, consumer));
+  }
+
+  /**
+   * Returns a last delivered value of observed double Value, without polling the host.
+   *
+   * @param value an observed value
+   * @return last value, or NaN if the value is not observed or not delivered yet.
+   */
+  public static double lastDouble(Value<DoubleValueChangedCallback> value) {
+    Subscriptions subscriptions = hooks.get(value);
+    return subscriptions != null ? subscriptions.doubleValue : Double.NaN;
+  }
+
+  /**
+   * Subscribe a double value without boxing, the latest value is delivered at most once per {@link
+   * #flush()}.
+   *
+   * @param value a value to subscribe
+   * @param consumer a consumer of value
+   * @param minInterval minimum interval of delivery in milliseconds
+   * @return a subscription
+   */
+  public static Subscription<Double> subscribeDouble(
+      Value<DoubleValueChangedCallback> value, DoubleConsumer consumer, int minInterval) {
+    return add(
+        observe(value),
+        new CoalescedSubscription<>(new DoubleSubscription(value, consumer), minInterval));
+  }
+
+  /**
+   * Subscribe a color value as primitive RGB, without allocation.
+   *
+   * @param value a value to subscribe
+   * @param consumer a consumer of RGB components
+   * @return a subscription
+   */
+  public static Subscription<Color> subscribeColor(
+      Value<ColorValueChangedCallback> value, ColorConsumer consumer) {
+    return add(observe(value), new ColorSubscription(value, consumer));
+  }
+
+  /**
+   * Subscribe an integer value without boxing.
+   *
+   * @param value a value to subscribe
+   * @param consumer a consumer of value
+   * @return a subscription
+   */
+  public static Subscription<Integer> subscribeInteger(
+      Value<IntegerValueChangedCallback> value, IntConsumer consumer) {
+    return add(observe(value), new IntegerSubscription(value, consumer));
+  }
+
+  /**
+   * Subscribe an integer value without boxing, the latest value is delivered at most once per
+   * {@link #flush()}.
+   *
+   * @param value a value to subscribe
+   * @param consumer a consumer of value
+   * @param minInterval minimum interval of delivery in milliseconds
+   * @return a subscription
+   */
+  public static Subscription<Integer> subscribeInteger(
+      Value<IntegerValueChangedCallback> value, IntConsumer consumer, int minInterval) {
+    return add(
+        observe(value),
+        new CoalescedSubscription<>(new IntegerSubscription(value, consumer), minInterval));
+  }
+
+  private static <T extends ValueChangedCallback> Subscriptions observe(Value<T> value) {
+    Subscriptions subscriptions = hooks.get(value);
+    if (subscriptions == null) {
+      CallbackFactory<T> factory = getCallbackFactory(value);
+      if (factory == null) {
+        throw new UnsupportedOperationException("Unsupported value type [" + value + "]");
+      }
+      subscriptions = new Subscriptions();
+      value.addValueObserver(factory.create(subscriptions));
+      hooks.put(value, subscriptions);
     }
-    List<SubscriptionImpl<?>> subscriptions =
-        hooks.computeIfAbsent(
-            value,
-            k -> {
-              List<SubscriptionImpl<?>> list = new ArrayList<>();
-              value.addValueObserver(factory.apply(list));
-              return list;
-            });
-    if (subscriptions.size() == 0) {
-      value.subscribe();
+    return subscriptions;
+  }
+
+  private static <C> Subscription<C> add(
+      Subscriptions subscriptions, SubscriptionImpl<C> subscription) {
+    // a pending release is cancelled, the host doesn't notify a Value that is still subscribed.
+    boolean releasing = subscriptions.subscribed && subscriptions.isEmpty();
+    subscriptions.generation++;
+    if (!subscriptions.subscribed) {
+      subscription.value.subscribe();
+      subscriptions.subscribed = true;
     }
-    SubscriptionImpl<C> subscription = new SubscriptionImpl<>(value, consumer);
     subscriptions.add(subscription);
-    LOG.trace("subscribe(): value[{}]. subscriptions total {}.", value, subscriptions.size());
+    if (releasing) {
+      subscriptions.replay(subscription);
+    }
+    LOG.trace(
+        "subscribe(): value[{}]. subscriptions total {}.",
+        subscription.value,
+        subscriptions.size());
     return subscription;
   }
 
+  private static void release(Value<?> value, Subscriptions subscriptions) {
+    if (releaseDelay <= 0) {
+      value.unsubscribe();
+      subscriptions.subscribed = false;
+      return;
+    }
+    int generation = ++subscriptions.generation;
+    host.scheduleTask(
+        () -> {
+          if (hooks != null
+              && hooks.get(value) == subscriptions
+              && subscriptions.generation == generation
+              && subscriptions.subscribed) {
+            LOG.trace("release(): value[{}] is released.", value);
+            value.unsubscribe();
+            subscriptions.subscribed = false;
+          }
+        },
+        releaseDelay);
+  }
+
   @SuppressWarnings("unchecked")
   private static <T extends ValueChangedCallback> CallbackFactory<T> getCallbackFactory(
       Value<T> value) {
-    return CALLBACK_FACTORIES.stream()
-        .filter(
-            p -> {
-              try {
-                value.getClass().getMethod("addValueObserver", p.getLeft());
-                return true;
-              } catch (NoSuchMethodException | SecurityException ex) {
-                return false;
-              }
-            })
-        .map(p -> (CallbackFactory<T>) p.getRight())
-        .findFirst()
-        .orElse(null);
+    return (CallbackFactory<T>) FACTORY_CACHE.get(value.getClass());
   }
 }
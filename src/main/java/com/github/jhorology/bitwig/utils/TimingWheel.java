@@ -0,0 +1,293 @@
+package com.github.jhorology.bitwig.utils;
+
+import java.util.Arrays;
+
+/**
+ * A hashed timing wheel.
+ *
+ * <p>Timeouts are hashed into slots by deadline tick, {@link #advance()} visits only the slots of
+ * elapsed ticks. When a {@link Scheduler} is given, the wheel arms a single wakeup for the earliest
+ * deadline and stays idle while no timeouts are pending.
+ *
+ * <p>The earliest deadline is cached, slots are rescanned only after the earliest timeout is
+ * canceled or expired.
+ */
+public class TimingWheel {
+  private static final int NOT_PENDING = -1;
+  private static final int EXPIRING = -2;
+
+  /** A scheduler of one-shot wakeups, e.g. {@code ControllerHost::scheduleTask}. */
+  @FunctionalInterface
+  public interface Scheduler {
+    /**
+     * Schedule a task.
+     *
+     * @param task task to run
+     * @param delay delay in milliseconds
+     */
+    void schedule(Runnable task, long delay);
+  }
+
+  /** A reusable timeout, it can be scheduled again after expired or canceled. */
+  public static final class Timeout {
+    private final Runnable task;
+    private long deadline;
+    private int slot = NOT_PENDING;
+    private Timeout prev;
+    private Timeout next;
+    private Timeout nextExpired;
+
+    /**
+     * Constructor.
+     *
+     * @param task task to run at deadline
+     */
+    public Timeout(Runnable task) {
+      this.task = task;
+    }
+
+    /**
+     * Returns whether this timeout is scheduled and not yet expired.
+     *
+     * @return true if pending
+     */
+    public boolean isPending() {
+      return slot >= 0;
+    }
+
+    /**
+     * Returns a deadline of this timeout.
+     *
+     * @return deadline in milliseconds
+     */
+    public long getDeadline() {
+      return deadline;
+    }
+  }
+
+  private final Timeout[] wheel;
+  private final int mask;
+  private final int tickDuration;
+  private final Clock clock;
+  private final Scheduler scheduler;
+  private long currentTick;
+  private int size;
+  private boolean advancing;
+  // a lower bound of deadlines, exact unless stale.
+  private long earliest = Long.MAX_VALUE;
+  private boolean stale;
+  private long armedDeadline = Long.MAX_VALUE;
+  private int armedToken;
+
+  /**
+   * Constructor.
+   *
+   * @param tickDuration duration of a tick in milliseconds
+   * @param numSlots number of slots, rounded up to power of 2
+   * @param clock clock
+   * @param scheduler scheduler of wakeups, or null if the wheel is advanced by caller
+   */
+  public TimingWheel(int tickDuration, int numSlots, Clock clock, Scheduler scheduler) {
+    if (tickDuration <= 0 || numSlots <= 0) {
+      throw new IllegalArgumentException("tickDuration and numSlots should be positive.");
+    }
+    int n = Integer.highestOneBit(numSlots - 1) << 1;
+    this.wheel = new Timeout[Math.max(n, 1)];
+    this.mask = wheel.length - 1;
+    this.tickDuration = tickDuration;
+    this.clock = clock;
+    this.scheduler = scheduler;
+    this.currentTick = clock.millis() / tickDuration;
+  }
+
+  /**
+   * Schedule a new timeout.
+   *
+   * @param task task to run
+   * @param delay delay in milliseconds
+   * @return timeout
+   */
+  public Timeout schedule(Runnable task, long delay) {
+    Timeout timeout = new Timeout(task);
+    schedule(timeout, delay);
+    return timeout;
+  }
+
+  /**
+   * Schedule a timeout, a pending timeout is rescheduled.
+   *
+   * @param timeout timeout
+   * @param delay delay in milliseconds
+   */
+  public void schedule(Timeout timeout, long delay) {
+    if (timeout.slot >= 0) {
+      unlink(timeout);
+    }
+    timeout.deadline = clock.millis() + Math.max(delay, 0);
+    // a deadline in the past is put into the slot of current tick.
+    int slot = (int) (Math.max(timeout.deadline / tickDuration, currentTick) & mask);
+    timeout.slot = slot;
+    timeout.prev = null;
+    timeout.next = wheel[slot];
+    if (timeout.next != null) {
+      timeout.next.prev = timeout;
+    }
+    wheel[slot] = timeout;
+    size++;
+    earliest = Math.min(earliest, timeout.deadline);
+    if (!advancing) {
+      arm();
+    }
+  }
+
+  /**
+   * Cancel a timeout.
+   *
+   * @param timeout timeout
+   */
+  public void cancel(Timeout timeout) {
+    if (timeout.slot >= 0) {
+      unlink(timeout);
+    }
+    timeout.slot = NOT_PENDING;
+  }
+
+  /** Cancel all timeouts. */
+  public void clear() {
+    for (int i = 0; i < wheel.length; i++) {
+      Timeout timeout = wheel[i];
+      while (timeout != null) {
+        Timeout next = timeout.next;
+        timeout.slot = NOT_PENDING;
+        timeout.prev = null;
+        timeout.next = null;
+        timeout = next;
+      }
+    }
+    Arrays.fill(wheel, null);
+    size = 0;
+    earliest = Long.MAX_VALUE;
+    stale = false;
+    // an armed wakeup is ignored.
+    armedDeadline = Long.MAX_VALUE;
+    armedToken++;
+  }
+
+  /**
+   * Returns a number of pending timeouts.
+   *
+   * @return number of timeouts
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the earliest deadline of pending timeouts.
+   *
+   * @return deadline in milliseconds, or Long.MAX_VALUE if no timeouts are pending.
+   */
+  public long nextDeadline() {
+    if (size == 0) {
+      earliest = Long.MAX_VALUE;
+      stale = false;
+    } else if (stale) {
+      long deadline = Long.MAX_VALUE;
+      for (int i = 0; i < wheel.length; i++) {
+        for (Timeout timeout = wheel[i]; timeout != null; timeout = timeout.next) {
+          deadline = Math.min(deadline, timeout.deadline);
+        }
+      }
+      earliest = deadline;
+      stale = false;
+    }
+    return earliest;
+  }
+
+  /** Run tasks of expired timeouts. */
+  public void advance() {
+    long now = clock.millis();
+    long targetTick = now / tickDuration;
+    // every slot is visited at most once.
+    long fromTick = Math.max(currentTick, targetTick - mask);
+    advancing = true;
+    try {
+      for (long tick = fromTick; tick <= targetTick && size > 0; tick++) {
+        expire((int) (tick & mask), now);
+      }
+    } finally {
+      advancing = false;
+    }
+    currentTick = Math.max(currentTick, targetTick);
+    arm();
+  }
+
+  private void expire(int slot, long now) {
+    Timeout expired = null;
+    Timeout timeout = wheel[slot];
+    while (timeout != null) {
+      Timeout next = timeout.next;
+      if (timeout.deadline <= now) {
+        unlink(timeout);
+        timeout.slot = EXPIRING;
+        timeout.nextExpired = expired;
+        expired = timeout;
+      }
+      timeout = next;
+    }
+    while (expired != null) {
+      timeout = expired;
+      expired = timeout.nextExpired;
+      timeout.nextExpired = null;
+      // canceled or rescheduled by a preceding task.
+      if (timeout.slot == EXPIRING) {
+        timeout.slot = NOT_PENDING;
+        timeout.task.run();
+      }
+    }
+  }
+
+  private void unlink(Timeout timeout) {
+    if (timeout.prev != null) {
+      timeout.prev.next = timeout.next;
+    } else {
+      wheel[timeout.slot] = timeout.next;
+    }
+    if (timeout.next != null) {
+      timeout.next.prev = timeout.prev;
+    }
+    timeout.prev = null;
+    timeout.next = null;
+    timeout.slot = NOT_PENDING;
+    size--;
+    if (timeout.deadline == earliest) {
+      stale = true;
+    }
+  }
+
+  private void arm() {
+    if (scheduler == null || size == 0) {
+      return;
+    }
+    if (armedDeadline <= earliest) {
+      // the wakeup comes no later than the earliest deadline, even if it's stale.
+      return;
+    }
+    long deadline = nextDeadline();
+    if (deadline >= armedDeadline) {
+      return;
+    }
+    armedDeadline = deadline;
+    int token = ++armedToken;
+    scheduler.schedule(() -> wake(token), Math.max(deadline - clock.millis(), 0));
+  }
+
+  private void wake(int token) {
+    if (token != armedToken) {
+      // superseded by an earlier wakeup.
+      return;
+    }
+    armedDeadline = Long.MAX_VALUE;
+    advance();
+  }
+}
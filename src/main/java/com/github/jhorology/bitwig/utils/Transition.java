@@ -1,9 +1,7 @@
 package com.github.jhorology.bitwig.utils;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.function.Consumer;
-import java.util.function.Function;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Supplier;
 
 /**
@@ -20,12 +18,18 @@ import java.util.function.Supplier;
  *             0.0 |-------------|----------------|-------------!
  *                    delay(ms)     duration(ms)     endDelay(ms)
  * </pre>
+ *
+ * <p>Transitions are serviced by a {@link TimingWheel}, each transition is woken up only at its
+ * next edge. a pulse has edges at start and end of phases, other functions are sampled at {@link
+ * #FRAME_INTERVAL} during transition phase.
  */
 public class Transition implements Supplier<Double> {
-  private static final Function<Double, Double> PULSE = t -> t == 1.0 ? 0 : 1.0;
-  private static final Function<Double, Double> LINEAR = t -> t;
-  private static final Function<Double, Double> BEZIER_EASE_IN = t -> t * t * (3.0 - 2.0 * t);
-  // TODO need more functions
+  /** sampling interval of continuous functions in milliseconds. */
+  public static final int FRAME_INTERVAL = 50;
+
+  private static final int TICK_DURATION = 10;
+  private static final int NUM_SLOTS = 64;
+  private static final long NANOS_PER_MILLI = 1_000_000L;
 
   /**
    * A POJO class for parameters of transition.
@@ -39,7 +43,7 @@ public class Transition implements Supplier<Double> {
    *   loop = true
    *   triggerable = false
    *   globalSync = true
-   *   fn = t -> t == 1.0 ? 0 : 1.0;
+   *   fn = Easing.PULSE
    * </pre>
    */
   public static class Params {
@@ -49,7 +53,7 @@ public class Transition implements Supplier<Double> {
     private boolean loop = true;
     private boolean triggerable = false;
     private boolean globalSync = true;
-    private Function<Double, Double> fn = PULSE;
+    private DoubleUnaryOperator fn = Easing.PULSE;
 
     public int getDelay() {
       return delay;
@@ -99,36 +103,46 @@ public class Transition implements Supplier<Double> {
       this.globalSync = globalSync;
     }
 
-    public Function<Double, Double> getFn() {
+    public DoubleUnaryOperator getFn() {
       return fn;
     }
 
-    public void setFn(Function<Double, Double> fn) {
+    /**
+     * Set a function of transition, see {@link Easing}.
+     *
+     * @param fn function of t=[0.0, 1.0]
+     */
+    public void setFn(DoubleUnaryOperator fn) {
       this.fn = fn;
     }
   }
 
-  private static List<Transition> transitionList;
+  private static Clock clock;
+  private static TimingWheel wheel;
   private final Params params;
-  private final Consumer<Double> consumer;
+  private final DoubleConsumer consumer;
+  // times are in nanoseconds.
   private long startTime;
+  private long nextEdgeTime = Long.MIN_VALUE;
   private final double startValue;
   private final double endValue;
   private double value = Double.NaN;
+  private long lastCycle;
   private long lastCycleElapsedTime;
   private boolean paused;
   private boolean ended;
   private boolean canceled;
+  private final TimingWheel.Timeout timeout = new TimingWheel.Timeout(this::tick);
 
   // TODO need more static methods for easy use
-  public static Transition blink(int onDuration, int offDuration, Consumer<Double> consumer) {
+  public static Transition blink(int onDuration, int offDuration, DoubleConsumer consumer) {
     Params params = new Params();
     params.setDuration(onDuration);
     params.setEndDelay(offDuration);
     return new Transition(params, consumer);
   }
 
-  public static Transition triggerablePulse(int pulseDuration, Consumer<Double> consumer) {
+  public static Transition triggerablePulse(int pulseDuration, DoubleConsumer consumer) {
     Params params = new Params();
     params.setTriggerable(true);
     params.setDuration(pulseDuration);
@@ -137,31 +151,46 @@ public class Transition implements Supplier<Double> {
     return new Transition(params, consumer);
   }
 
-  public static Transition create(Consumer<Double> consumer) {
+  public static Transition create(DoubleConsumer consumer) {
     return new Transition(new Params(), consumer);
   }
 
-  public static Transition create(Params params, Consumer<Double> consumer) {
+  public static Transition create(Params params, DoubleConsumer consumer) {
     return new Transition(params, consumer);
   }
 
-  private Transition(Params params, Consumer<Double> consumer) {
+  private Transition(Params params, DoubleConsumer consumer) {
     this.params = params;
     this.consumer = consumer;
-    this.startTime = System.currentTimeMillis();
-    this.startValue = params.fn.apply(0.0);
-    this.endValue = params.fn.apply(1.0);
+    this.startTime = clock.nanoTime();
+    this.startValue = params.fn.applyAsDouble(0.0);
+    this.endValue = params.fn.applyAsDouble(1.0);
     this.paused = params.triggerable;
-    transitionList.add(this);
+    if (!paused) {
+      wheel.schedule(timeout, 0);
+    }
   }
 
   /**
-   * initialize.
+   * initialize, transitions are serviced by calling {@link #update()}.
    *
    * <p>this method should be called at ControllerExtension#init()
    */
   public static void init() {
-    transitionList = new ArrayList<>();
+    init(Clock.SYSTEM, null);
+  }
+
+  /**
+   * initialize.
+   *
+   * <p>this method should be called at ControllerExtension#init()
+   *
+   * @param clock clock of transitions, phases of globally synced transitions are derived from it.
+   * @param scheduler scheduler of wakeups, e.g. {@code ControllerHost::scheduleTask}.
+   */
+  public static void init(Clock clock, TimingWheel.Scheduler scheduler) {
+    Transition.clock = clock;
+    wheel = new TimingWheel(TICK_DURATION, NUM_SLOTS, clock, scheduler);
   }
 
   /**
@@ -170,28 +199,34 @@ public class Transition implements Supplier<Double> {
    * <p>this method should be called at ControllerExtension#exit()
    */
   public static void exit() {
-    transitionList.clear();
-    transitionList = null;
+    wheel.clear();
+    wheel = null;
+    clock = null;
   }
 
   public void trigger() {
     if (params.triggerable) {
       paused = false;
       value = Double.NaN;
-      startTime = System.currentTimeMillis();
+      startTime = clock.nanoTime();
       _update(startTime);
+      scheduleNextEdge(startTime);
     }
   }
 
   /**
-   * update transitions.
+   * update transitions whose edge is due.
    *
-   * <p>this method should be called interval.
+   * <p>this method is needed only if no scheduler is given at {@link #init(Clock,
+   * TimingWheel.Scheduler)}.
    */
   public static void update() {
-    long currentTime = System.currentTimeMillis();
-    transitionList.forEach(t -> t._update(currentTime));
-    transitionList.removeIf(t -> t.ended || t.canceled);
+    wheel.advance();
+  }
+
+  // other time-based services in this package share the wheel.
+  static TimingWheel wheel() {
+    return wheel;
   }
 
   @Override
@@ -203,11 +238,15 @@ public class Transition implements Supplier<Double> {
     if (canceled || paused) {
       return;
     }
-    long cycleDuration = params.delay + params.duration + params.endDelay;
-    long elapsedTime = currentTime - startTime;
-    long cycleElapsedTime =
-        params.globalSync ? (currentTime % cycleDuration) : (elapsedTime % cycleDuration);
-    boolean cycleUp = cycleElapsedTime < lastCycleElapsedTime;
+    long delay = params.delay * NANOS_PER_MILLI;
+    long duration = params.duration * NANOS_PER_MILLI;
+    long cycleDuration = delay + duration + params.endDelay * NANOS_PER_MILLI;
+    long time = params.globalSync ? currentTime : currentTime - startTime;
+    long cycle = Math.floorDiv(time, cycleDuration);
+    long cycleElapsedTime = Math.floorMod(time, cycleDuration);
+    // an edge can land exactly on the start of next cycle.
+    boolean cycleUp = !Double.isNaN(this.value) && cycle != lastCycle;
+    lastCycle = cycle;
     lastCycleElapsedTime = cycleElapsedTime;
     if (cycleUp) {
       // fn(1.0)
@@ -229,12 +268,12 @@ public class Transition implements Supplier<Double> {
     }
 
     double value;
-    if (cycleElapsedTime < params.delay) {
+    if (cycleElapsedTime < delay) {
       // in delay
       value = startValue;
-    } else if (cycleElapsedTime <= (params.delay + params.duration)) {
+    } else if (cycleElapsedTime <= (delay + duration)) {
       // in transition
-      value = params.fn.apply((double) (cycleElapsedTime - params.delay) / params.duration);
+      value = params.fn.applyAsDouble((double) (cycleElapsedTime - delay) / duration);
     } else {
       // in end delay
       value = endValue;
@@ -242,6 +281,38 @@ public class Transition implements Supplier<Double> {
     notifyValue(value);
   }
 
+  private void tick() {
+    // the wheel has millisecond resolution, a wakeup slightly before the edge is snapped to it.
+    long currentTime = Math.max(clock.nanoTime(), nextEdgeTime);
+    _update(currentTime);
+    scheduleNextEdge(currentTime);
+  }
+
+  private void scheduleNextEdge(long currentTime) {
+    if (canceled || paused || ended) {
+      return;
+    }
+    long delay = params.delay * NANOS_PER_MILLI;
+    long duration = params.duration * NANOS_PER_MILLI;
+    long cycleDuration = delay + duration + params.endDelay * NANOS_PER_MILLI;
+    long cycleElapsedTime = lastCycleElapsedTime;
+    long edge;
+    if (cycleElapsedTime < delay) {
+      edge = delay;
+    } else if (cycleElapsedTime < (delay + duration)) {
+      // fn(1.0) is reached at the end of duration.
+      edge = delay + duration;
+      if (params.fn != Easing.PULSE) {
+        edge = Math.min(edge, cycleElapsedTime + FRAME_INTERVAL * NANOS_PER_MILLI);
+      }
+    } else {
+      edge = cycleDuration;
+    }
+    nextEdgeTime = currentTime + Math.min(edge, cycleDuration) - cycleElapsedTime;
+    long delayNanos = nextEdgeTime - clock.nanoTime();
+    wheel.schedule(timeout, (delayNanos + NANOS_PER_MILLI - 1) / NANOS_PER_MILLI);
+  }
+
   private void notifyValue(double value) {
     if (this.value != value) {
       this.consumer.accept(value);
@@ -256,6 +327,9 @@ public class Transition implements Supplier<Double> {
    */
   public void remove() {
     canceled = true;
+    if (wheel != null) {
+      wheel.cancel(timeout);
+    }
   }
 
   public boolean isEnded() {
@@ -5,60 +5,89 @@ import com.bitwig.extension.controller.api.CursorTrack;
 import com.bitwig.extension.controller.api.DocumentState;
 import com.bitwig.extension.controller.api.Parameter;
 import com.bitwig.extension.controller.api.SettableEnumValue;
+import com.bitwig.extension.controller.api.Track;
 import com.bitwig.extension.controller.api.TrackBank;
 import com.bitwig.extension.controller.api.Transport;
 import com.bitwig.extension.controller.api.UserControlBank;
+import com.github.jhorology.bitwig.control.ControlMap;
 import com.github.jhorology.bitwig.xone.k2.Modes.Nav1Mode;
 import com.github.jhorology.bitwig.xone.k2.Modes.Nav2Mode;
-import java.util.HashMap;
-import java.util.Map;
 
 public class Modules {
+  /** number of tracks per unit, units control adjacent tracks of the bank. */
+  public static final int NUM_TRACKS_PER_UNIT = 4;
+
   public static Transport TRANSPORT;
   public static CursorTrack CURSOR_TRACK;
   public static TrackBank TRACK_BANK;
-  public static Map<XoneK2Control, Parameter> USER_CONTROL_MAP;
+  public static ControlMap<Parameter> USER_CONTROL_MAP;
   public static DocumentState DOCUMENT_STATE;
   public static SettableEnumValue NAV1_MODE;
   public static SettableEnumValue NAV2_MODE;
 
-  static void init(ControllerHost host) {
+  /**
+   * initialize modules that are shared by units, host objects are created only once regardless of
+   * number of units.
+   *
+   * @param host host
+   * @param units units
+   */
+  static void init(ControllerHost host, XoneK2Unit... units) {
     TRANSPORT = host.createTransport();
     CURSOR_TRACK = host.createCursorTrack("Xone:K2", "Xone:K2", 3, 4, true);
-    TRACK_BANK = host.createTrackBank(4, 3, 4);
+    TRACK_BANK = host.createTrackBank(NUM_TRACKS_PER_UNIT * units.length, 3, 4);
     TRACK_BANK.followCursorTrack(CURSOR_TRACK);
     TRACK_BANK.sceneBank().setIndication(true);
     DOCUMENT_STATE = host.getDocumentState();
     NAV1_MODE = DOCUMENT_STATE.getEnumSetting("Nav1", "Navigation Knob mode", Nav1Mode.TEST1);
     NAV2_MODE = DOCUMENT_STATE.getEnumSetting("Nav2", "Navigation Knob mode", Nav2Mode.TEST1);
-    // 4 x 4 knobs + 4 faders + 4 x 4 grid buttons
+    // 4 x 4 knobs + 4 faders + 4 x 4 grid buttons per unit
     int numUserControls = 4 * 4 + 4 + 4 * 4;
-    UserControlBank controls = host.createUserControls(numUserControls);
+    UserControlBank controls = host.createUserControls(numUserControls * units.length);
     int index = 0;
+    USER_CONTROL_MAP = new ControlMap<>(XoneK2Unit.NUM_CONTROLS * units.length);
+    for (XoneK2Unit unit : units) {
+      index = initUserControls(controls, index, unit);
+    }
+  }
+
+  /**
+   * Returns a track of unit, unit N controls tracks from N * {@link #NUM_TRACKS_PER_UNIT} of the
+   * bank.
+   *
+   * @param unit unit
+   * @param ch channel index of unit (0-3).
+   * @return track
+   */
+  public static Track track(XoneK2Unit unit, int ch) {
+    return TRACK_BANK.getItemAt(unit.getIndex() * NUM_TRACKS_PER_UNIT + ch);
+  }
+
+  private static int initUserControls(UserControlBank controls, int index, XoneK2Unit unit) {
     // knobs
-    USER_CONTROL_MAP = new HashMap<>();
     for (int ch = 0; ch < 4; ch++) {
       for (int row = 0; row < 4; row++) {
-        XoneK2Control control = XoneK2Control.knob(ch, row);
+        XoneK2Control control = unit.knob(ch, row);
         Parameter param = controls.getControl(index++);
         param.setLabel(control.name());
         USER_CONTROL_MAP.put(control, param);
       }
     }
     for (int ch = 0; ch < 4; ch++) {
-      XoneK2Control control = XoneK2Control.fader(ch);
+      XoneK2Control control = unit.fader(ch);
       Parameter param = controls.getControl(index++);
       param.setLabel(control.name());
       USER_CONTROL_MAP.put(control, param);
     }
     for (int col = 0; col < 4; col++) {
       for (int row = 0; row < 4; row++) {
-        XoneK2Control control = XoneK2Control.grid(col, row);
+        XoneK2Control control = unit.grid(col, row);
         Parameter param = controls.getControl(index++);
         param.setLabel(control.name());
         USER_CONTROL_MAP.put(control, param);
       }
     }
+    return index;
   }
 
   static void exit() {
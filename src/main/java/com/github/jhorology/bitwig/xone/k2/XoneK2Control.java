@@ -1,197 +1,342 @@
 package com.github.jhorology.bitwig.xone.k2;
 
-import static com.github.jhorology.bitwig.xone.k2.Modules.TRANSPORT;
 import static com.github.jhorology.bitwig.xone.k2.XoneK2LedState.*;
 
 import com.bitwig.extension.api.Color;
 import com.bitwig.extension.controller.api.AbsoluteHardwareValueMatcher;
+import com.bitwig.extension.controller.api.ControllerHost;
 import com.bitwig.extension.controller.api.HardwareActionMatcher;
 import com.bitwig.extension.controller.api.HardwareSurface;
 import com.bitwig.extension.controller.api.MidiIn;
-import com.bitwig.extension.controller.api.MidiOut;
 import com.bitwig.extension.controller.api.RelativeHardwareValueMatcher;
+import com.github.jhorology.bitwig.control.AbsValueFilter;
 import com.github.jhorology.bitwig.control.Control;
-import com.github.jhorology.bitwig.utils.Hook;
-import com.github.jhorology.bitwig.utils.Hook.Subscription;
-import com.github.jhorology.bitwig.utils.Transition;
+import com.github.jhorology.bitwig.control.EncoderEngine;
+import com.github.jhorology.bitwig.utils.Beat;
+import com.github.jhorology.bitwig.utils.BlinkEngine;
+import com.github.jhorology.bitwig.utils.Clock;
+import com.github.jhorology.bitwig.utils.Hook.BooleanConsumer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * A control of XONE:K2 unit.
+ *
+ * <p>Controls are instantiated per unit, static controls of a single device, e.g. {@code CH0_ENC0}
+ * or {@code SHIFT}, are replaced by {@link Element} and {@link XoneK2Unit#get(Element)}. Static
+ * accessors of controls are kept for the first unit, but deprecated.
+ */
 public class XoneK2Control extends Control<XoneK2Control, XoneK2LedState> {
   private static final Logger LOG = LoggerFactory.getLogger(XoneK2Control.class);
 
-  public static final XoneK2Control CH0_ENC0 =
-      create(BUTTON | ENCODER | RELATIVE | LED, 0x34, 0x0, "CH0_ENC0");
-  public static final XoneK2Control CH1_ENC0 =
-      create(BUTTON | ENCODER | RELATIVE | LED, 0x35, 0x1, "CH1_ENC0");
-  public static final XoneK2Control CH2_ENC0 =
-      create(BUTTON | ENCODER | RELATIVE | LED, 0x36, 0x2, "CH2_ENC0");
-  public static final XoneK2Control CH3_ENC0 =
-      create(BUTTON | ENCODER | RELATIVE | LED, 0x37, 0x3, "CH3_ENC0");
-
-  public static final XoneK2Control CH0_ENC1 =
-      create(BUTTON | ENCODER | LED, 0x30, 0x4, "CH0_ENC1");
-  public static final XoneK2Control CH1_ENC1 =
-      create(BUTTON | ENCODER | LED, 0x31, 0x5, "CH1_ENC1");
-  public static final XoneK2Control CH2_ENC1 =
-      create(BUTTON | ENCODER | LED, 0x32, 0x6, "CH2_ENC1");
-  public static final XoneK2Control CH3_ENC1 =
-      create(BUTTON | ENCODER | LED, 0x33, 0x7, "CH3_ENC1");
-
-  public static final XoneK2Control CH0_ENC2 =
-      create(BUTTON | ENCODER | LED, 0x2C, 0x8, "CH0_ENC2");
-  public static final XoneK2Control CH1_ENC2 =
-      create(BUTTON | ENCODER | LED, 0x2D, 0x9, "CH1_ENC2");
-  public static final XoneK2Control CH2_ENC2 =
-      create(BUTTON | ENCODER | LED, 0x2E, 0xA, "CH2_ENC2");
-  public static final XoneK2Control CH3_ENC2 =
-      create(BUTTON | ENCODER | LED, 0x2F, 0xB, "CH3_ENC2");
-
-  public static final XoneK2Control CH0_ENC3 =
-      create(BUTTON | ENCODER | LED, 0x28, 0xC, "CH0_ENC3");
-  public static final XoneK2Control CH1_ENC3 =
-      create(BUTTON | ENCODER | LED, 0x29, 0xD, "CH1_ENC3");
-  public static final XoneK2Control CH2_ENC3 =
-      create(BUTTON | ENCODER | LED, 0x2A, 0xE, "CH2_ENC3");
-  public static final XoneK2Control CH3_ENC3 =
-      create(BUTTON | ENCODER | LED, 0x2B, 0xF, "CH3_ENC3");
-
-  public static final XoneK2Control CH0_FADER = create(ENCODER, -1, 0x10, "CH0_FADER");
-  public static final XoneK2Control CH1_FADER = create(ENCODER, -1, 0x11, "CH1_FADER");
-  public static final XoneK2Control CH2_FADER = create(ENCODER, -1, 0x12, "CH2_FADER");
-  public static final XoneK2Control CH3_FADER = create(ENCODER, -1, 0x13, "CH3_FADER");
-
-  public static final XoneK2Control A = create(BUTTON | LED, 0x24, -1, "A");
-  public static final XoneK2Control B = create(BUTTON | LED, 0x25, -1, "B");
-  public static final XoneK2Control C = create(BUTTON | LED, 0x26, -1, "C");
-  public static final XoneK2Control D = create(BUTTON | LED, 0x27, -1, "D");
-
-  public static final XoneK2Control E = create(BUTTON | LED, 0x20, -1, "E");
-  public static final XoneK2Control F = create(BUTTON | LED, 0x21, -1, "F");
-  public static final XoneK2Control G = create(BUTTON | LED, 0x22, -1, "G");
-  public static final XoneK2Control H = create(BUTTON | LED, 0x23, -1, "H");
-
-  public static final XoneK2Control I = create(BUTTON | LED, 0x1C, -1, "I");
-  public static final XoneK2Control J = create(BUTTON | LED, 0x1D, -1, "J");
-  public static final XoneK2Control K = create(BUTTON | LED, 0x1E, -1, "K");
-  public static final XoneK2Control L = create(BUTTON | LED, 0x1F, -1, "L");
-
-  public static final XoneK2Control M = create(BUTTON | LED, 0x18, -1, "M");
-  public static final XoneK2Control N = create(BUTTON | LED, 0x19, -1, "N");
-  public static final XoneK2Control O = create(BUTTON | LED, 0x1A, -1, "O");
-  public static final XoneK2Control P = create(BUTTON | LED, 0x1B, -1, "P");
-
-  public static final XoneK2Control LAYER = create(BUTTON | LED | COMMON, 0xC, -1, "LAYER");
-
-  public static final XoneK2Control NAV1 =
-      create(BUTTON | ENCODER | RELATIVE | COMMON, 0xD, 0x14, "NAV1");
-  public static final XoneK2Control NAV2 =
-      create(BUTTON | ENCODER | RELATIVE | COMMON, 0xE, 0x15, "NAV2");
-
-  public static final XoneK2Control SHIFT = create(BUTTON | LED | COMMON, 0xF, -1, "SHIFT");
-
-  private static final XoneK2Control[][] ENCODERS = {
-    {CH0_ENC0, CH1_ENC0, CH2_ENC0, CH3_ENC0},
-    {CH0_ENC1, CH1_ENC1, CH2_ENC1, CH3_ENC1},
-    {CH0_ENC2, CH1_ENC2, CH2_ENC2, CH3_ENC2},
-    {CH0_ENC3, CH1_ENC3, CH2_ENC3, CH3_ENC3}
-  };
-
-  private static final XoneK2Control[] FADERS = {CH0_FADER, CH1_FADER, CH2_FADER, CH3_FADER};
-
-  private static final XoneK2Control[][] GRID_BUTTONS = {
-    {A, B, C, D},
-    {E, F, G, H},
-    {I, J, K, L},
-    {M, N, O, P}
-  };
-
-  private static final XoneK2Control[] ALL = {
-    CH0_ENC0, CH1_ENC0, CH2_ENC0, CH3_ENC0,
-    CH0_ENC1, CH1_ENC1, CH2_ENC1, CH3_ENC1,
-    CH0_ENC2, CH1_ENC2, CH2_ENC2, CH3_ENC2,
-    CH0_ENC3, CH1_ENC3, CH2_ENC3, CH3_ENC3,
-    CH0_FADER, CH1_FADER, CH2_FADER, CH3_FADER,
-    A, B, C, D,
-    E, F, G, H,
-    I, J, K, L,
-    M, N, O, P,
-    LAYER, NAV1, NAV2, SHIFT
-  };
-
-  // TODO MIDI channel should be configurable.
-  private static final int MIDI_CH = 0;
+  /** elements of a device, in order of index. */
+  public enum Element {
+    CH0_ENC0(BUTTON | ENCODER | RELATIVE | LED, 0x34, 0x0),
+    CH1_ENC0(BUTTON | ENCODER | RELATIVE | LED, 0x35, 0x1),
+    CH2_ENC0(BUTTON | ENCODER | RELATIVE | LED, 0x36, 0x2),
+    CH3_ENC0(BUTTON | ENCODER | RELATIVE | LED, 0x37, 0x3),
+
+    CH0_ENC1(BUTTON | ENCODER | LED, 0x30, 0x4),
+    CH1_ENC1(BUTTON | ENCODER | LED, 0x31, 0x5),
+    CH2_ENC1(BUTTON | ENCODER | LED, 0x32, 0x6),
+    CH3_ENC1(BUTTON | ENCODER | LED, 0x33, 0x7),
+
+    CH0_ENC2(BUTTON | ENCODER | LED, 0x2C, 0x8),
+    CH1_ENC2(BUTTON | ENCODER | LED, 0x2D, 0x9),
+    CH2_ENC2(BUTTON | ENCODER | LED, 0x2E, 0xA),
+    CH3_ENC2(BUTTON | ENCODER | LED, 0x2F, 0xB),
+
+    CH0_ENC3(BUTTON | ENCODER | LED, 0x28, 0xC),
+    CH1_ENC3(BUTTON | ENCODER | LED, 0x29, 0xD),
+    CH2_ENC3(BUTTON | ENCODER | LED, 0x2A, 0xE),
+    CH3_ENC3(BUTTON | ENCODER | LED, 0x2B, 0xF),
+
+    CH0_FADER(ENCODER, -1, 0x10),
+    CH1_FADER(ENCODER, -1, 0x11),
+    CH2_FADER(ENCODER, -1, 0x12),
+    CH3_FADER(ENCODER, -1, 0x13),
+
+    A(BUTTON | LED, 0x24, -1),
+    B(BUTTON | LED, 0x25, -1),
+    C(BUTTON | LED, 0x26, -1),
+    D(BUTTON | LED, 0x27, -1),
+
+    E(BUTTON | LED, 0x20, -1),
+    F(BUTTON | LED, 0x21, -1),
+    G(BUTTON | LED, 0x22, -1),
+    H(BUTTON | LED, 0x23, -1),
+
+    I(BUTTON | LED, 0x1C, -1),
+    J(BUTTON | LED, 0x1D, -1),
+    K(BUTTON | LED, 0x1E, -1),
+    L(BUTTON | LED, 0x1F, -1),
+
+    M(BUTTON | LED, 0x18, -1),
+    N(BUTTON | LED, 0x19, -1),
+    O(BUTTON | LED, 0x1A, -1),
+    P(BUTTON | LED, 0x1B, -1),
+
+    LAYER(BUTTON | LED | COMMON, 0xC, -1),
+    NAV1(BUTTON | ENCODER | RELATIVE | COMMON, 0xD, 0x14),
+    NAV2(BUTTON | ENCODER | RELATIVE | COMMON, 0xE, 0x15),
+    SHIFT(BUTTON | LED | COMMON, 0xF, -1);
+
+    private final int spec;
+    private final int note;
+    private final int cc;
+
+    Element(int spec, int note, int cc) {
+      this.spec = spec;
+      this.note = note;
+      this.cc = cc;
+    }
+  }
+
+  // offsets of sections in elements.
+  static final int KNOB_OFFSET = 0;
+  static final int FADER_OFFSET = 16;
+  static final int GRID_OFFSET = 20;
+
+  private static final Element[] ELEMENTS = Element.values();
   private static final int RELATIVE_AMOUNT_PER_ROTATION = 30;
-  private final int spec;
-  private final int note;
-  private final int cc;
+  // indexes of elements by note/CC number for raw MIDI input, -1 if not assigned.
+  private static final int[] NOTE_TABLE = new int[128];
+  private static final int[] CC_TABLE = new int[128];
+  // units share blink phases and beat pulse.
+  private static XoneK2Unit[] units;
+  // blinking LEDs share phases per blink rate, members are indexes of controls over units.
+  private static BlinkEngine blinkEngine;
+  private static final BooleanConsumer BEAT_LISTENER = XoneK2Control::onBeatPulse;
+
+  static {
+    Arrays.fill(NOTE_TABLE, -1);
+    Arrays.fill(CC_TABLE, -1);
+    for (Element element : ELEMENTS) {
+      if (element.note >= 0) {
+        NOTE_TABLE[element.note] = element.ordinal();
+      }
+      if (element.cc >= 0) {
+        CC_TABLE[element.cc] = element.ordinal();
+      }
+    }
+  }
+
+  private final XoneK2Unit unit;
+  private final Element element;
   private final String name;
-  private Transition ledTransition;
-  private Subscription<Double> ledBeatSubscription;
+  private XoneK2LedState blinkState;
+  private XoneK2LedState beatState;
+
+  XoneK2Control(XoneK2Unit unit, Element element) {
+    super(unit.getRegistry(), element.ordinal());
+    this.unit = unit;
+    this.element = element;
+    // names are unique over units, first unit keeps plain names.
+    this.name =
+        unit.getIndex() == 0 ? element.name() : "U" + (unit.getIndex() + 1) + "_" + element.name();
+  }
 
-  private static XoneK2Control create(int spec, int note, int cc, String name) {
-    return new XoneK2Control(spec, note, cc, name);
+  /**
+   * initialize.
+   *
+   * <p>Units share blink phases, beat pulse and a MIDI callback per port, MIDI messages of a port
+   * are routed to units by channel.
+   *
+   * @param surface hardware surface
+   * @param host host to get MIDI ports of units
+   * @param clock clock to accelerate relative encoders
+   * @param rawMidiInput true to dispatch handlers of buttons and encoders from MIDI callback
+   *     directly, relative encoders are coalesced per flush and absolute encoders are filtered.
+   *     HardwareBindings of buttons stay on hardware surface.
+   * @param units units, indexed from 0 without gaps.
+   * @throws IllegalStateException if units share a MIDI channel of same port.
+   */
+  public static void init(
+      HardwareSurface surface,
+      ControllerHost host,
+      Clock clock,
+      boolean rawMidiInput,
+      XoneK2Unit... units) {
+    // MIDI port -> units by channel.
+    Map<Integer, XoneK2Unit[]> routes = new TreeMap<>();
+    for (int i = 0; i < units.length; i++) {
+      XoneK2Unit unit = units[i];
+      if (unit.getIndex() != i) {
+        throw new IllegalStateException("units should be indexed from 0 without gaps.");
+      }
+      XoneK2Unit[] channels = routes.computeIfAbsent(unit.getPort(), k -> new XoneK2Unit[16]);
+      if (channels[unit.getChannel()] != null) {
+        throw new IllegalStateException(
+            "MIDI channel of unit " + unit + " is already used by " + channels[unit.getChannel()]);
+      }
+      channels[unit.getChannel()] = unit;
+    }
+    XoneK2Control.units = units;
+    blinkEngine =
+        new BlinkEngine(
+            units.length * XoneK2Unit.NUM_CONTROLS, (member, on) -> control(member).blinkLed(on));
+    Beat.addListener(BEAT_LISTENER);
+    for (XoneK2Unit unit : units) {
+      MidiIn midiIn = host.getMidiInPort(unit.getPort());
+      unit.init(midiIn, host.getMidiOutPort(unit.getPort()));
+      for (int i = 0; i < XoneK2Unit.NUM_CONTROLS; i++) {
+        XoneK2Control control = unit.get(i);
+        control.initialize(surface, midiIn, unit.getMidiOut());
+        control.setRawInput(rawMidiInput);
+        control.setEncoderEngine(
+            rawMidiInput && control.isRelativeEncoder()
+                ? new EncoderEngine(clock, RELATIVE_AMOUNT_PER_ROTATION)
+                : null);
+        control.setAbsValueFilter(
+            rawMidiInput && control.isAbsoluteEncoder() ? new AbsValueFilter(clock) : null);
+      }
+    }
+    if (rawMidiInput) {
+      // a single callback per port, units of the port share it.
+      routes.forEach(
+          (port, channels) ->
+              host.getMidiInPort(port)
+                  .setMidiCallback(
+                      (status, data1, data2) -> {
+                        XoneK2Unit unit = channels[status & 0xF];
+                        if (unit != null) {
+                          onMidi(unit, status, data1, data2);
+                        }
+                      }));
+    }
   }
 
-  private XoneK2Control(int spec, int note, int cc, String name) {
-    super();
-    this.spec = spec;
-    this.note = note;
-    this.cc = cc;
-    this.name = name;
+  /**
+   * Dispatch coalesced deltas of relative encoders and held values of absolute encoders of all
+   * units, this method should be called at flush.
+   *
+   * @return delay in milliseconds until values that are still held are due, or -1 if none.
+   */
+  public static long flushEncoders() {
+    long delay = -1;
+    for (XoneK2Unit unit : units) {
+      long bits = unit.pendingEncoders;
+      unit.pendingEncoders = 0;
+      while (bits != 0) {
+        int index = Long.numberOfTrailingZeros(bits);
+        XoneK2Control control = unit.get(index);
+        bits &= bits - 1;
+        control.flushRelValue();
+        if (control.flushAbsValue()) {
+          unit.pendingEncoders |= 1L << index;
+          long remaining = control.getAbsValueFilter().getRemainingDelay();
+          delay = delay < 0 ? remaining : Math.min(delay, remaining);
+        }
+      }
+    }
+    return delay;
   }
 
-  /** initialize. */
-  public static void init(HardwareSurface surface, MidiIn midiIn, MidiOut midiOut) {
-    Hook.use(TRANSPORT.playPosition());
-    Stream.of(ALL).forEach(c -> c.initialize(surface, midiIn, midiOut));
+  /** Emit LED messages of all units for the current frame. */
+  public static void flushLeds() {
+    for (XoneK2Unit unit : units) {
+      unit.getLedOutput().flush();
+    }
   }
 
   /** finalize. */
   public static void exit() {
-    Stream.of(ALL).forEach(XoneK2Control::dispose);
+    for (XoneK2Unit unit : units) {
+      unit.stream().forEach(XoneK2Control::dispose);
+      unit.exit();
+    }
+    blinkEngine.clear();
+    Beat.removeListener(BEAT_LISTENER);
   }
 
   /**
-   * Returns a knob control.
+   * Returns a unit.
+   *
+   * @param index index of unit
+   * @return unit
+   */
+  public static XoneK2Unit getUnit(int index) {
+    return units[index];
+  }
+
+  /**
+   * Returns a number of units.
+   *
+   * @return number of units
+   */
+  public static int getNumUnits() {
+    return units.length;
+  }
+
+  /**
+   * Returns a knob control of first unit.
    *
    * @param ch channel index (0-3).
    * @param row row index of knob section (0-3).
    * @return A knob control
+   * @deprecated use {@link XoneK2Unit#knob(int, int)}
    */
+  @Deprecated
   public static XoneK2Control knob(int ch, int row) {
-    return ENCODERS[row][ch];
+    return units[0].knob(ch, row);
   }
 
   /**
-   * Returns a fader control.
+   * Returns a fader control of first unit.
    *
    * @param ch channel index (0-3).
    * @return A fader control
+   * @deprecated use {@link XoneK2Unit#fader(int)}
    */
+  @Deprecated
   public static XoneK2Control fader(int ch) {
-    return FADERS[ch];
+    return units[0].fader(ch);
   }
 
   /**
-   * Returns a button control of grid section.
+   * Returns a button control of grid section of first unit.
    *
    * @param col column index (0-3).
    * @param row row index (0-3).
    * @return A grid button control
+   * @deprecated use {@link XoneK2Unit#grid(int, int)}
    */
+  @Deprecated
   public static XoneK2Control grid(int col, int row) {
-    return GRID_BUTTONS[row][col];
+    return units[0].grid(col, row);
   }
 
   /**
-   * Returns a stream of all controls.
+   * Returns a stream of all controls of first unit.
    *
-   * @return stream of all controls
+   * @return stream of controls
+   * @deprecated use {@link XoneK2Unit#stream()}
    */
+  @Deprecated
   public static Stream<XoneK2Control> stream() {
-    return Stream.of(ALL);
+    return units[0].stream();
+  }
+
+  /**
+   * Returns a unit of this control.
+   *
+   * @return unit
+   */
+  public XoneK2Unit getUnit() {
+    return unit;
+  }
+
+  /**
+   * Returns an element of this control.
+   *
+   * @return element
+   */
+  public Element getElement() {
+    return element;
   }
 
   /** {@inheritDoc} */
@@ -202,14 +347,7 @@ public class XoneK2Control extends Control<XoneK2Control, XoneK2LedState> {
   @Override
   protected void onDispose() {
     if (isLED()) {
-      if (ledTransition != null) {
-        ledTransition.remove();
-        ledTransition = null;
-      }
-      if (ledBeatSubscription != null) {
-        ledBeatSubscription.unsubscribe();
-        ledBeatSubscription = null;
-      }
+      stopAnimation();
       this.led.state().setValue(OFF);
     }
   }
@@ -229,65 +367,131 @@ public class XoneK2Control extends Control<XoneK2Control, XoneK2LedState> {
   /** {@inheritDoc} */
   @Override
   protected int getSpec() {
-    return spec;
+    return element.spec;
   }
 
   /** {@inheritDoc} */
   @Override
   protected HardwareActionMatcher createPressedActionMatcher(MidiIn midiIn) {
-    return midiIn.createNoteOnActionMatcher(MIDI_CH, note);
+    return midiIn.createNoteOnActionMatcher(unit.getChannel(), element.note);
   }
 
   /** {@inheritDoc} */
   @Override
   protected HardwareActionMatcher createReleasedActionMatcher(MidiIn midiIn) {
-    return midiIn.createNoteOffActionMatcher(MIDI_CH, note);
+    return midiIn.createNoteOffActionMatcher(unit.getChannel(), element.note);
   }
 
   /** {@inheritDoc} */
   @Override
   protected AbsoluteHardwareValueMatcher createAbsValueMatcher(MidiIn midiIn) {
-    return midiIn.createAbsoluteCCValueMatcher(MIDI_CH, cc);
+    return midiIn.createAbsoluteCCValueMatcher(unit.getChannel(), element.cc);
   }
 
   /** {@inheritDoc} */
   @Override
   protected RelativeHardwareValueMatcher createRelValueMatcher(MidiIn midiIn) {
     return midiIn.createRelative2sComplementCCValueMatcher(
-        MIDI_CH, cc, RELATIVE_AMOUNT_PER_ROTATION);
+        unit.getChannel(), element.cc, RELATIVE_AMOUNT_PER_ROTATION);
   }
 
   /** {@inheritDoc} */
   @Override
   protected void sendLedState(XoneK2LedState state) {
     LOG.trace("[{}] led updated to state [{}].", name(), state);
-    int noteOffset = this == LAYER || this == SHIFT ? 4 : 36;
+    // previous animation is always stopped, a new state never runs along with a stale one.
+    stopAnimation();
     if (state != null && state.getVisualState().isBlinking()) {
       if (state == RED_BEAT || state == YELLOW_BEAT || state == GREEN_BEAT) {
-        sendColor(state.getVisualState().getColor());
-        ledTransition = Transition.triggerablePulse(100, v -> blinkLed(state, v));
-        ledBeatSubscription =
-            Hook.subscribe(
-                TRANSPORT.playPosition(),
-                v -> {
-                  LOG.info("BEAT value={}", v);
-                });
+        beatState = state;
+        unit.beatLeds |= 1L << element.ordinal();
+        blinkLed(state, Beat.isPulseOn() ? 1.0 : 0.0);
       } else {
-        ledTransition = Transition.blink(100, 100, v -> blinkLed(state, v));
+        blinkState = state;
+        blinkEngine.blink(
+            member(),
+            toMillis(state.getVisualState().getBlinkOnTimeInSec()),
+            toMillis(state.getVisualState().getBlinkOffTimeInSec()));
       }
     } else {
-      if (ledTransition != null) {
-        ledTransition.remove();
-        ledTransition = null;
-      }
-      if (ledBeatSubscription != null) {
-        ledBeatSubscription.unsubscribe();
-        ledBeatSubscription = null;
-      }
       sendColor(state != null ? state.getVisualState().getColor() : null);
     }
   }
 
+  private void stopAnimation() {
+    if (blinkState != null) {
+      blinkEngine.stop(member());
+      blinkState = null;
+    }
+    if (beatState != null) {
+      unit.beatLeds &= ~(1L << element.ordinal());
+      beatState = null;
+    }
+  }
+
+  // index of this control over units.
+  private int member() {
+    return unit.getIndex() * XoneK2Unit.NUM_CONTROLS + element.ordinal();
+  }
+
+  // the first hop of MIDI input, it runs before hardware surface matches the message.
+  private static void onMidi(XoneK2Unit unit, int status, int data1, int data2) {
+    int index;
+    switch (status & 0xF0) {
+      case 0x90:
+        index = NOTE_TABLE[data1 & 0x7F];
+        if (index >= 0) {
+          unit.get(index).rawPressed(data2 > 0);
+        }
+        break;
+      case 0x80:
+        index = NOTE_TABLE[data1 & 0x7F];
+        if (index >= 0) {
+          unit.get(index).rawPressed(false);
+        }
+        break;
+      case 0xB0:
+        index = CC_TABLE[data1 & 0x7F];
+        if (index < 0) {
+          break;
+        }
+        XoneK2Control control = unit.get(index);
+        if (control.isRelativeEncoder()) {
+          // 7bit two's complement
+          int ticks = (data2 & 0x40) != 0 ? (data2 & 0x7F) - 0x80 : data2 & 0x3F;
+          if (control.rawRelValue(ticks)) {
+            unit.pendingEncoders |= 1L << index;
+          }
+        } else if (control.rawAbsValue((data2 & 0x7F) / 127.0)) {
+          unit.pendingEncoders |= 1L << index;
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  private static void onBeatPulse(boolean on) {
+    for (XoneK2Unit unit : units) {
+      long bits = unit.beatLeds;
+      while (bits != 0) {
+        XoneK2Control control = unit.get(Long.numberOfTrailingZeros(bits));
+        bits &= bits - 1;
+        control.blinkLed(control.beatState, on ? 1.0 : 0.0);
+      }
+    }
+  }
+
+  private static XoneK2Control control(int member) {
+    return units[member / XoneK2Unit.NUM_CONTROLS].get(member % XoneK2Unit.NUM_CONTROLS);
+  }
+
+  private void blinkLed(boolean on) {
+    if (blinkState != null) {
+      blinkLed(blinkState, on ? 1.0 : 0.0);
+    }
+  }
+
   private void blinkLed(XoneK2LedState state, double value) {
     if (value == 1.0) {
       sendColor(state.getVisualState().getColor());
@@ -296,18 +500,22 @@ public class XoneK2Control extends Control<XoneK2Control, XoneK2LedState> {
     }
   }
 
+  private static int toMillis(double sec) {
+    return (int) Math.round(sec * 1000);
+  }
+
   private void sendColor(Color color) {
-    int noteOffset = this == LAYER || this == SHIFT ? 4 : 36;
+    int noteOffset = element == Element.LAYER || element == Element.SHIFT ? 4 : 36;
+    XoneK2LedOutput ledOutput = unit.getLedOutput();
+    int note = element.note;
     if (RED_COLOR.equals(color)) {
-      midiOut.sendMidi(0x90 + MIDI_CH, note, 0x7f);
+      ledOutput.setColor(note, noteOffset, XoneK2LedOutput.RED);
     } else if (YELLOW_COLOR.equals(color)) {
-      midiOut.sendMidi(0x90 + MIDI_CH, note + noteOffset, 0x7f);
+      ledOutput.setColor(note, noteOffset, XoneK2LedOutput.YELLOW);
     } else if (GREEN_COLOR.equals(color)) {
-      midiOut.sendMidi(0x90 + MIDI_CH, note + noteOffset * 2, 0x7f);
+      ledOutput.setColor(note, noteOffset, XoneK2LedOutput.GREEN);
     } else {
-      midiOut.sendMidi(0x90 + MIDI_CH, note, 0);
-      midiOut.sendMidi(0x90 + MIDI_CH, note + noteOffset, 0);
-      midiOut.sendMidi(0x90 + MIDI_CH, note + noteOffset * 2, 0);
+      ledOutput.setColor(note, noteOffset, XoneK2LedOutput.OFF);
     }
   }
 }
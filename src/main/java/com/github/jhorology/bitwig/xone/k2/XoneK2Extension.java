@@ -3,20 +3,58 @@ package com.github.jhorology.bitwig.xone.k2;
 import com.bitwig.extension.controller.ControllerExtension;
 import com.bitwig.extension.controller.api.ControllerHost;
 import com.bitwig.extension.controller.api.HardwareSurface;
+import com.bitwig.extension.controller.api.Preferences;
+import com.bitwig.extension.controller.api.SettableBooleanValue;
+import com.bitwig.extension.controller.api.SettableEnumValue;
+import com.github.jhorology.bitwig.control.ControlRegistry;
 import com.github.jhorology.bitwig.control.Layers;
+import com.github.jhorology.bitwig.utils.Beat;
+import com.github.jhorology.bitwig.utils.Clock;
 import com.github.jhorology.bitwig.utils.Hook;
 import com.github.jhorology.bitwig.utils.Transition;
 import com.github.jhorology.bitwig.xone.k2.layer.BaseMixerLayer;
 import com.github.jhorology.bitwig.xone.k2.layer.ClipLauncherLayer;
 import com.github.jhorology.bitwig.xone.k2.layer.LayerSelector;
+import com.github.jhorology.bitwig.xone.k2.layer.MixerEncoderLayer;
+import com.github.jhorology.bitwig.xone.k2.layer.MixerFaderLayer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class XoneK2Extension extends ControllerExtension {
   private static final Logger LOG = LoggerFactory.getLogger(XoneK2Extension.class);
-  private static final int TRANSITION_FRAME_RATE = 20;
+  // pending coalesced values are delivered by a trailing flush.
+  private static final int HOOK_FLUSH_INTERVAL = 50;
+  // grace period before an unused Value is unsubscribed.
+  private static final int HOOK_RELEASE_DELAY = 1000;
+  // hot values are logged periodically in development build.
+  private static final int HOOK_DUMP_TOP_N = 10;
+  private static final int HOOK_DUMP_INTERVAL = 10000;
+  // units and MIDI ports, units on the same port are distinguished by MIDI channel.
+  private static final String[] UNIT_OPTIONS = {"1", "2", "3"};
+  private static final String[] PORT_OPTIONS =
+      IntStream.rangeClosed(1, XoneK2ExtensionDefinition.NUM_MIDI_PORTS)
+          .mapToObj(String::valueOf)
+          .toArray(String[]::new);
+  private static final String[] CHANNEL_OPTIONS = {
+    "1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14", "15", "16"
+  };
   private HardwareSurface surface;
-  private Layers<XoneK2Control, XoneK2LedState> layers;
+  // units that are configured by caller, units are read from preferences if empty.
+  private final List<XoneK2Unit> configuredUnits = new ArrayList<>();
+  private XoneK2Unit[] units;
+  // regions of surface per unit, layers are switched independently in each region.
+  private final List<Layers<XoneK2Control, XoneK2LedState>> gridLayers = new ArrayList<>();
+  private final List<Layers<XoneK2Control, XoneK2LedState>> encoderLayers = new ArrayList<>();
+  private final List<Layers<XoneK2Control, XoneK2LedState>> faderLayers = new ArrayList<>();
+  private boolean trailingFlush;
+  private boolean encoderFlush;
+  private Clock clock = Clock.SYSTEM;
+  // raw MIDI input path that is configured by caller, it's read from preferences if null.
+  private Boolean rawMidiInput;
 
   protected XoneK2Extension(final XoneK2ExtensionDefinition definition, final ControllerHost host) {
     super(definition, host);
@@ -25,25 +63,81 @@ public class XoneK2Extension extends ControllerExtension {
   @Override
   public void init() {
     ControllerHost host = getHost();
-    Hook.init();
-    Modules.init(host);
-    Transition.init();
-    transitionService();
+    Hook.init(host, HOOK_RELEASE_DELAY, clock);
+    if (LOG.isDebugEnabled()) {
+      Hook.instrument(HOOK_DUMP_TOP_N, HOOK_DUMP_INTERVAL);
+    }
+    units =
+        configuredUnits.isEmpty() ? readUnits(host) : configuredUnits.toArray(new XoneK2Unit[0]);
+    // host objects and observers are shared by units.
+    Modules.init(host, units);
+    // LEDs are flushed after transitions are woken up.
+    Transition.init(clock, (task, delay) -> host.scheduleTask(() -> flushTransitions(task), delay));
+    Beat.init(Modules.TRANSPORT, clock);
     surface = host.createHardwareSurface();
-    BaseMixerLayer test = new BaseMixerLayer(host);
-    layers =
-        new Layers<>(
-            new BaseMixerLayer(host), new LayerSelector(host), new ClipLauncherLayer(host));
-    XoneK2Control.init(surface, host.getMidiInPort(0), host.getMidiOutPort(0));
-    layers.init();
-    layers.open(BaseMixerLayer.class);
-    LOG.info("XONE:K2 Initialized.");
+    for (XoneK2Unit unit : units) {
+      ControlRegistry<XoneK2Control> registry = unit.getRegistry();
+      gridLayers.add(
+          new Layers<>(
+              registry,
+              unit + " grid",
+              new BaseMixerLayer(host, unit),
+              new LayerSelector(host, unit),
+              new ClipLauncherLayer(host, unit)));
+      encoderLayers.add(
+          new Layers<>(registry, unit + " encoders", new MixerEncoderLayer(host, unit)));
+      faderLayers.add(new Layers<>(registry, unit + " faders", new MixerFaderLayer(host, unit)));
+    }
+    XoneK2Control.init(
+        surface, host, clock, rawMidiInput != null ? rawMidiInput : readRawMidiInput(host), units);
+    gridLayers.forEach(Layers::init);
+    encoderLayers.forEach(Layers::init);
+    faderLayers.forEach(Layers::init);
+    gridLayers.forEach(layers -> layers.open(BaseMixerLayer.class));
+    encoderLayers.forEach(layers -> layers.open(MixerEncoderLayer.class));
+    faderLayers.forEach(layers -> layers.open(MixerFaderLayer.class));
+    LOG.info("XONE:K2 Initialized. units={}", Arrays.toString(units));
+  }
+
+  /**
+   * Replace the clock of time-based logic, this method should be called before {@link #init()}.
+   *
+   * @param clock clock
+   */
+  void setClock(Clock clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * Enable or disable raw MIDI input path of controls, this method should be called before {@link
+   * #init()}.
+   *
+   * @param rawMidiInput true to dispatch handlers from MIDI callback
+   */
+  void setRawMidiInput(boolean rawMidiInput) {
+    this.rawMidiInput = rawMidiInput;
+  }
+
+  /**
+   * Add a unit instead of preferences, this method should be called before {@link #init()}.
+   *
+   * @param port index of MIDI in/out port
+   * @param channel MIDI channel (0-15)
+   */
+  void addUnit(int port, int channel) {
+    configuredUnits.add(new XoneK2Unit(configuredUnits.size(), port, channel));
   }
 
   @Override
   public void exit() {
-    layers.exit();
+    faderLayers.forEach(Layers::exit);
+    encoderLayers.forEach(Layers::exit);
+    gridLayers.forEach(Layers::exit);
+    faderLayers.clear();
+    encoderLayers.clear();
+    gridLayers.clear();
     XoneK2Control.exit();
+    Beat.exit();
     Transition.exit();
     Modules.exit();
     Hook.exit();
@@ -52,12 +146,95 @@ public class XoneK2Extension extends ControllerExtension {
 
   @Override
   public void flush() {
-    // Transition.update();
+    // relative encoders are coalesced into one adjustment per flush.
+    long encoderDelay = XoneK2Control.flushEncoders();
+    Hook.flush();
     surface.updateHardware();
+    // a single LED frame for all units.
+    XoneK2Control.flushLeds();
+    if (Hook.isPending() && !trailingFlush) {
+      trailingFlush = true;
+      getHost().scheduleTask(this::trailingFlush, HOOK_FLUSH_INTERVAL);
+    }
+    // values of absolute encoders held by rate limiter are released when due.
+    if (encoderDelay >= 0 && !encoderFlush) {
+      encoderFlush = true;
+      getHost().scheduleTask(this::encoderFlush, encoderDelay);
+    }
+  }
+
+  private void flushTransitions(Runnable task) {
+    task.run();
+    Hook.flush();
+    XoneK2Control.flushLeds();
+  }
+
+  // settings are read at init, changes take effect at next start of extension.
+  private static XoneK2Unit[] readUnits(ControllerHost host) {
+    Preferences preferences = host.getPreferences();
+    SettableEnumValue numUnits =
+        preferences.getEnumSetting("Number of units", "Units", UNIT_OPTIONS, UNIT_OPTIONS[0]);
+    numUnits.markInterested();
+    List<XoneK2Unit> units = new ArrayList<>();
+    // all settings are created regardless of number of units.
+    for (int i = 0; i < UNIT_OPTIONS.length; i++) {
+      String category = "Unit " + UNIT_OPTIONS[i];
+      // units are daisy-chained on first port by default, a port is selectable only if the
+      // definition has multiple ports.
+      SettableEnumValue port =
+          PORT_OPTIONS.length > 1
+              ? preferences.getEnumSetting("MIDI port", category, PORT_OPTIONS, PORT_OPTIONS[0])
+              : null;
+      SettableEnumValue channel =
+          preferences.getEnumSetting("MIDI channel", category, CHANNEL_OPTIONS, CHANNEL_OPTIONS[i]);
+      if (port != null) {
+        port.markInterested();
+      }
+      channel.markInterested();
+      if (i > indexOf(UNIT_OPTIONS, numUnits, 0)) {
+        continue;
+      }
+      int portIndex = port != null ? indexOf(PORT_OPTIONS, port, 0) : 0;
+      int channelIndex = indexOf(CHANNEL_OPTIONS, channel, i);
+      if (units.stream()
+          .anyMatch(u -> u.getPort() == portIndex && u.getChannel() == channelIndex)) {
+        String message =
+            "XONE:K2 unit "
+                + UNIT_OPTIONS[i]
+                + " is skipped, MIDI port "
+                + PORT_OPTIONS[portIndex]
+                + " channel "
+                + CHANNEL_OPTIONS[channelIndex]
+                + " is already used.";
+        LOG.warn(message);
+        host.showPopupNotification(message);
+        continue;
+      }
+      units.add(new XoneK2Unit(units.size(), portIndex, channelIndex));
+    }
+    return units.toArray(new XoneK2Unit[0]);
+  }
+
+  // settings are read at init, changes take effect at next start of extension.
+  private static boolean readRawMidiInput(ControllerHost host) {
+    SettableBooleanValue rawMidiInput =
+        host.getPreferences().getBooleanSetting("Raw MIDI input", "Performance", false);
+    rawMidiInput.markInterested();
+    return rawMidiInput.get();
+  }
+
+  private static int indexOf(String[] options, SettableEnumValue value, int defaultIndex) {
+    int index = Arrays.asList(options).indexOf(value.get());
+    return index >= 0 ? index : defaultIndex;
+  }
+
+  private void trailingFlush() {
+    trailingFlush = false;
+    flush();
   }
 
-  private void transitionService() {
-    Transition.update();
-    getHost().scheduleTask(this::transitionService, 1000 / TRANSITION_FRAME_RATE);
+  private void encoderFlush() {
+    encoderFlush = false;
+    flush();
   }
 }
@@ -8,6 +8,8 @@ import java.util.UUID;
 
 public class XoneK2ExtensionDefinition extends ControllerExtensionDefinition {
   private static final UUID DRIVER_ID = UUID.fromString("3ac1ceb2-248f-4c52-b5e5-98e86f2226cc");
+  // units are daisy-chained on a port and distinguished by MIDI channel, see XoneK2Extension.
+  static final int NUM_MIDI_PORTS = 1;
 
   public XoneK2ExtensionDefinition() {}
 
@@ -48,12 +50,12 @@ public class XoneK2ExtensionDefinition extends ControllerExtensionDefinition {
 
   @Override
   public int getNumMidiInPorts() {
-    return 1;
+    return NUM_MIDI_PORTS;
   }
 
   @Override
   public int getNumMidiOutPorts() {
-    return 1;
+    return NUM_MIDI_PORTS;
   }
 
   @Override
@@ -0,0 +1,136 @@
+package com.github.jhorology.bitwig.xone.k2;
+
+import com.bitwig.extension.controller.api.MidiOut;
+import java.util.Arrays;
+
+/**
+ * LED output of a XONE:K2 device.
+ *
+ * <p>A LED of XONE:K2 has 3 notes, red=note, yellow=note+offset, green=note+offset*2. A note-on
+ * message selects the color of LED, so the other notes of the LED are treated as off. This class
+ * holds a shadow table of the last velocity sent for every LED note, and emits only messages that
+ * change the state of hardware.
+ *
+ * <p>LED writes are buffered in a frame, {@link #flush()} emits the minimal set of messages for the
+ * final state of each LED in the frame. Messages that turn LEDs off are emitted before messages
+ * that turn LEDs on.
+ */
+public class XoneK2LedOutput {
+  /** color index of LED. */
+  public static final int OFF = 0;
+
+  public static final int RED = 1;
+  public static final int YELLOW = 2;
+  public static final int GREEN = 3;
+
+  private static final int UNKNOWN = -1;
+  private static final int VELOCITY_ON = 0x7f;
+
+  private final MidiOut midiOut;
+  private final int channel;
+  private final int[] shadow = new int[128];
+  // red note -> color index, note offset
+  private final int[] frame = new int[128];
+  private final int[] offsets = new int[128];
+  private final boolean[] dirty = new boolean[128];
+  private final int[] dirtyNotes = new int[128];
+  private int numDirty;
+  private long sentCount;
+  private long suppressedCount;
+
+  /**
+   * Constructor.
+   *
+   * @param midiOut MIDI output port of device
+   * @param channel MIDI channel (0-15)
+   */
+  public XoneK2LedOutput(MidiOut midiOut, int channel) {
+    this.midiOut = midiOut;
+    this.channel = channel;
+    invalidate();
+  }
+
+  /**
+   * Set a color of LED in the current frame.
+   *
+   * @param note red note of LED
+   * @param offset note offset between colors
+   * @param color color index of LED
+   */
+  public void setColor(int note, int offset, int color) {
+    frame[note] = color;
+    offsets[note] = offset;
+    if (!dirty[note]) {
+      dirty[note] = true;
+      dirtyNotes[numDirty++] = note;
+    }
+  }
+
+  /** Emit messages for LEDs that are changed in the current frame. */
+  public void flush() {
+    if (numDirty == 0) {
+      return;
+    }
+    for (int i = 0; i < numDirty; i++) {
+      int note = dirtyNotes[i];
+      if (frame[note] == OFF) {
+        emit(note, offsets[note], OFF);
+      }
+    }
+    for (int i = 0; i < numDirty; i++) {
+      int note = dirtyNotes[i];
+      if (frame[note] != OFF) {
+        emit(note, offsets[note], frame[note]);
+      }
+      dirty[note] = false;
+    }
+    numDirty = 0;
+  }
+
+  /** Forget the state of hardware, next messages are sent regardless of shadow table. */
+  public void invalidate() {
+    Arrays.fill(shadow, UNKNOWN);
+  }
+
+  /**
+   * Returns a number of sent messages.
+   *
+   * @return number of messages
+   */
+  public long getSentCount() {
+    return sentCount;
+  }
+
+  /**
+   * Returns a number of messages that are suppressed because they don't change hardware.
+   *
+   * @return number of messages
+   */
+  public long getSuppressedCount() {
+    return suppressedCount;
+  }
+
+  private void emit(int note, int offset, int color) {
+    for (int c = RED; c <= GREEN; c++) {
+      int n = note + offset * (c - 1);
+      if (c == color) {
+        send(n, VELOCITY_ON);
+      } else if (color == OFF) {
+        send(n, 0);
+      } else {
+        // implicitly turned off by selecting the other color.
+        shadow[n] = 0;
+      }
+    }
+  }
+
+  private void send(int note, int velocity) {
+    if (shadow[note] == velocity) {
+      suppressedCount++;
+      return;
+    }
+    shadow[note] = velocity;
+    midiOut.sendMidi(0x90 + channel, note, velocity);
+    sentCount++;
+  }
+}
@@ -10,8 +10,9 @@ public class XoneK2LedState extends InternalHardwareLightState {
   public static final Color YELLOW_COLOR = Color.fromRGB(1.0, 1.0, 0.0);
   public static final Color GREEN_COLOR = Color.fromRGB(0.0, 1.0, 0.0);
 
-  private static final double BLINK_ON_SEC = 0.2; // sec
-  private static final double BLINK_OFF_SEC = 0.2; // sec
+  // LEDs of blinking states are blinked by BlinkEngine at these times.
+  private static final double BLINK_ON_SEC = 0.1; // sec
+  private static final double BLINK_OFF_SEC = 0.1; // sec
 
   /** LED off state. */
   public static final XoneK2LedState OFF =
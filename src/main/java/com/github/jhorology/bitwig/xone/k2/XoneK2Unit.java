@@ -0,0 +1,176 @@
+package com.github.jhorology.bitwig.xone.k2;
+
+import com.bitwig.extension.controller.api.MidiIn;
+import com.bitwig.extension.controller.api.MidiOut;
+import com.github.jhorology.bitwig.control.ControlRegistry;
+import com.github.jhorology.bitwig.xone.k2.XoneK2Control.Element;
+import java.util.stream.Stream;
+
+/**
+ * A XONE:K2 device, units are identified by MIDI port and channel.
+ *
+ * <p>Each unit has its own table of controls and its own {@link ControlRegistry}, ordinals of
+ * controls are indexes of element, host values of encoders are cached per unit.
+ */
+public final class XoneK2Unit {
+  /** number of controls per unit. */
+  public static final int NUM_CONTROLS = Element.values().length;
+
+  private final int index;
+  private final int port;
+  private final int channel;
+  // indexed by element.
+  private final XoneK2Control[] controls = new XoneK2Control[NUM_CONTROLS];
+  private final ControlRegistry<XoneK2Control> registry = new ControlRegistry<>();
+  private MidiIn midiIn;
+  private MidiOut midiOut;
+  private XoneK2LedOutput ledOutput;
+  // encoders that have pending delta or held value, bits are indexes of element.
+  long pendingEncoders;
+  // LEDs that follow beat pulse, bits are indexes of element.
+  long beatLeds;
+
+  /**
+   * Constructor.
+   *
+   * @param index index of unit, units should be indexed from 0 without gaps.
+   * @param port index of MIDI in/out port
+   * @param channel MIDI channel (0-15)
+   */
+  public XoneK2Unit(int index, int port, int channel) {
+    if (index < 0 || port < 0 || channel < 0 || channel > 15) {
+      throw new IllegalArgumentException(
+          "index and port should not be negative, channel should be 0-15.");
+    }
+    this.index = index;
+    this.port = port;
+    this.channel = channel;
+    for (Element element : Element.values()) {
+      controls[element.ordinal()] = new XoneK2Control(this, element);
+    }
+  }
+
+  /**
+   * initialize. this method is called by {@link XoneK2Control#init}.
+   *
+   * @param midiIn MIDI input port
+   * @param midiOut MIDI output port
+   */
+  void init(MidiIn midiIn, MidiOut midiOut) {
+    this.midiIn = midiIn;
+    this.midiOut = midiOut;
+    this.ledOutput = new XoneK2LedOutput(midiOut, channel);
+    pendingEncoders = 0;
+    beatLeds = 0;
+  }
+
+  /** finalize. this method is called by {@link XoneK2Control#exit()}. */
+  void exit() {
+    midiIn = null;
+    midiOut = null;
+  }
+
+  /**
+   * Returns a registry of controls, regions of this unit share it.
+   *
+   * @return registry of controls
+   */
+  public ControlRegistry<XoneK2Control> getRegistry() {
+    return registry;
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public int getPort() {
+    return port;
+  }
+
+  public int getChannel() {
+    return channel;
+  }
+
+  MidiIn getMidiIn() {
+    return midiIn;
+  }
+
+  MidiOut getMidiOut() {
+    return midiOut;
+  }
+
+  /**
+   * Returns a LED output of this unit.
+   *
+   * @return LED output
+   */
+  public XoneK2LedOutput getLedOutput() {
+    return ledOutput;
+  }
+
+  /**
+   * Returns a control of element.
+   *
+   * @param element element of device
+   * @return A control
+   */
+  public XoneK2Control get(Element element) {
+    return controls[element.ordinal()];
+  }
+
+  /**
+   * Returns a control of index.
+   *
+   * @param index index of element
+   * @return A control
+   */
+  XoneK2Control get(int index) {
+    return controls[index];
+  }
+
+  /**
+   * Returns a knob control.
+   *
+   * @param ch channel index (0-3).
+   * @param row row index of knob section (0-3).
+   * @return A knob control
+   */
+  public XoneK2Control knob(int ch, int row) {
+    return controls[XoneK2Control.KNOB_OFFSET + row * 4 + ch];
+  }
+
+  /**
+   * Returns a fader control.
+   *
+   * @param ch channel index (0-3).
+   * @return A fader control
+   */
+  public XoneK2Control fader(int ch) {
+    return controls[XoneK2Control.FADER_OFFSET + ch];
+  }
+
+  /**
+   * Returns a button control of grid section.
+   *
+   * @param col column index (0-3).
+   * @param row row index (0-3).
+   * @return A grid button control
+   */
+  public XoneK2Control grid(int col, int row) {
+    return controls[XoneK2Control.GRID_OFFSET + row * 4 + col];
+  }
+
+  /**
+   * Returns a stream of all controls of this unit.
+   *
+   * @return stream of controls
+   */
+  public Stream<XoneK2Control> stream() {
+    return Stream.of(controls);
+  }
+
+  @Override
+  public String toString() {
+    return "U" + (index + 1) + "[port=" + (port + 1) + ", ch=" + (channel + 1) + "]";
+  }
+}
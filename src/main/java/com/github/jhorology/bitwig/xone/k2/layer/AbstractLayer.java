@@ -1,13 +1,21 @@
 package com.github.jhorology.bitwig.xone.k2.layer;
 
 import com.bitwig.extension.controller.api.ControllerHost;
+import com.bitwig.extension.controller.api.Track;
 import com.github.jhorology.bitwig.control.Layer;
+import com.github.jhorology.bitwig.xone.k2.Modules;
 import com.github.jhorology.bitwig.xone.k2.XoneK2Control;
+import com.github.jhorology.bitwig.xone.k2.XoneK2Control.Element;
 import com.github.jhorology.bitwig.xone.k2.XoneK2LedState;
+import com.github.jhorology.bitwig.xone.k2.XoneK2Unit;
 
 abstract class AbstractLayer extends Layer<XoneK2Control, XoneK2LedState> {
-  protected AbstractLayer(ControllerHost host) {
+  // a layer is instantiated per unit.
+  protected final XoneK2Unit unit;
+
+  protected AbstractLayer(ControllerHost host, XoneK2Unit unit) {
     super(host);
+    this.unit = unit;
   }
 
   @Override
@@ -15,4 +23,24 @@ abstract class AbstractLayer extends Layer<XoneK2Control, XoneK2LedState> {
 
   @Override
   protected void onDispose() {}
+
+  protected XoneK2Control control(Element element) {
+    return unit.get(element);
+  }
+
+  protected XoneK2Control knob(int ch, int row) {
+    return unit.knob(ch, row);
+  }
+
+  protected XoneK2Control fader(int ch) {
+    return unit.fader(ch);
+  }
+
+  protected XoneK2Control grid(int col, int row) {
+    return unit.grid(col, row);
+  }
+
+  protected Track track(int ch) {
+    return Modules.track(unit, ch);
+  }
 }
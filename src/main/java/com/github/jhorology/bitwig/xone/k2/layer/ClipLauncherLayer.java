@@ -1,20 +1,19 @@
 package com.github.jhorology.bitwig.xone.k2.layer;
 
-import static com.github.jhorology.bitwig.xone.k2.Modules.*;
-import static com.github.jhorology.bitwig.xone.k2.XoneK2Control.*;
 import static com.github.jhorology.bitwig.xone.k2.XoneK2LedState.*;
 
 import com.bitwig.extension.controller.api.ClipLauncherSlot;
 import com.bitwig.extension.controller.api.ControllerHost;
 import com.bitwig.extension.controller.api.Track;
+import com.github.jhorology.bitwig.xone.k2.XoneK2Unit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class ClipLauncherLayer extends AbstractLayer {
   private static final Logger LOG = LoggerFactory.getLogger(ClipLauncherLayer.class);
 
-  public ClipLauncherLayer(ControllerHost host) {
-    super(host);
+  public ClipLauncherLayer(ControllerHost host, XoneK2Unit unit) {
+    super(host, unit);
   }
 
   @Override
@@ -25,7 +24,7 @@ public class ClipLauncherLayer extends AbstractLayer {
   @Override
   protected void setup() {
     for (int col = 0; col < 4; col++) {
-      Track track = TRACK_BANK.getItemAt(col);
+      Track track = track(col);
       for (int row = 0; row < 4; row++) {
         // TODO recordAction, queued state ...
         ClipLauncherSlot slot = track.clipLauncherSlotBank().getItemAt(row);
@@ -1,14 +1,15 @@
 package com.github.jhorology.bitwig.xone.k2.layer;
 
 import com.bitwig.extension.controller.api.ControllerHost;
+import com.github.jhorology.bitwig.xone.k2.XoneK2Unit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class LayerSelector extends AbstractLayer {
   private static final Logger LOG = LoggerFactory.getLogger(LayerSelector.class);
 
-  public LayerSelector(ControllerHost host) {
-    super(host);
+  public LayerSelector(ControllerHost host, XoneK2Unit unit) {
+    super(host, unit);
   }
 
   @Override
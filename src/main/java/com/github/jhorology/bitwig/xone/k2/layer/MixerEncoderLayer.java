@@ -0,0 +1,55 @@
+package com.github.jhorology.bitwig.xone.k2.layer;
+
+import static com.github.jhorology.bitwig.xone.k2.XoneK2LedState.*;
+
+import com.bitwig.extension.controller.api.ControllerHost;
+import com.bitwig.extension.controller.api.Parameter;
+import com.bitwig.extension.controller.api.Send;
+import com.bitwig.extension.controller.api.Track;
+import com.github.jhorology.bitwig.xone.k2.XoneK2Unit;
+
+/** pan and sends of mixer on the encoder region. */
+public class MixerEncoderLayer extends AbstractLayer {
+  public MixerEncoderLayer(ControllerHost host, XoneK2Unit unit) {
+    super(host, unit);
+  }
+
+  @Override
+  protected boolean isOverlay() {
+    return false;
+  }
+
+  @Override
+  protected void setup() {
+    for (int ch = 0; ch < 4; ch++) {
+      Track track = track(ch);
+      Parameter pan = track.pan();
+      Send send0 = track.sendBank().getItemAt(0);
+      Send send1 = track.sendBank().getItemAt(1);
+      Send send2 = track.sendBank().getItemAt(2);
+      // RULE: behavior of controls should be defined at use() scope.
+      // sends take over by pickup, not to jump to positions of knobs.
+      use(
+          knob(ch, 0)
+              .onRelValue(track.pan())
+              .onPressed(pan::reset)
+              .onReleased(GREEN)
+              .onPressed(RED),
+          knob(ch, 1)
+              .onAbsValue(send0, true)
+              .onPressed(send0::reset)
+              .onReleased(GREEN)
+              .onPressed(RED),
+          knob(ch, 2)
+              .onAbsValue(send1, true)
+              .onPressed(send1::reset)
+              .onReleased(GREEN)
+              .onPressed(RED),
+          knob(ch, 3)
+              .onAbsValue(send2, true)
+              .onPressed(send2::reset)
+              .onReleased(GREEN)
+              .onPressed(RED));
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package com.github.jhorology.bitwig.xone.k2.layer;
+
+import com.bitwig.extension.controller.api.ControllerHost;
+import com.github.jhorology.bitwig.xone.k2.XoneK2Unit;
+
+/** volume of mixer on the fader region. */
+public class MixerFaderLayer extends AbstractLayer {
+  public MixerFaderLayer(ControllerHost host, XoneK2Unit unit) {
+    super(host, unit);
+  }
+
+  @Override
+  protected boolean isOverlay() {
+    return false;
+  }
+
+  @Override
+  protected void setup() {
+    for (int ch = 0; ch < 4; ch++) {
+      use(fader(ch).onAbsValue(track(ch).volume()));
+    }
+  }
+}
@@ -1,10 +1,11 @@
 package com.github.jhorology.bitwig.xone.k2.layer;
 
 import com.bitwig.extension.controller.api.ControllerHost;
+import com.github.jhorology.bitwig.xone.k2.XoneK2Unit;
 
 public class UserControlsLayer extends AbstractLayer {
-  protected UserControlsLayer(ControllerHost host) {
-    super(host);
+  protected UserControlsLayer(ControllerHost host, XoneK2Unit unit) {
+    super(host, unit);
   }
 
   @Override
@@ -0,0 +1,90 @@
+package com.github.jhorology.bitwig.control;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.jhorology.bitwig.headless.ManualClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AbsValueFilterTest {
+  private static final double STEP = 1.0 / 127.0;
+  private ManualClock clock;
+
+  @BeforeEach
+  void setUp() {
+    clock = new ManualClock();
+  }
+
+  @Test
+  void sameDirectionPasses() {
+    AbsValueFilter filter = new AbsValueFilter(clock, 1.5 * STEP, 0);
+    assertTrue(filter.offer(10 * STEP));
+    assertTrue(filter.offer(11 * STEP));
+    assertTrue(filter.offer(12 * STEP));
+    // unchanged value never passes.
+    assertFalse(filter.offer(12 * STEP));
+    assertEquals(3, filter.getDeliveredCount());
+    assertEquals(1, filter.getDroppedCount());
+  }
+
+  @Test
+  void reversalWithinDeadbandIsDropped() {
+    AbsValueFilter filter = new AbsValueFilter(clock, 1.5 * STEP, 0);
+    filter.offer(10 * STEP);
+    filter.offer(11 * STEP);
+    // dithering between neighbouring values.
+    assertFalse(filter.offer(10 * STEP));
+    assertFalse(filter.offer(11 * STEP));
+    assertFalse(filter.offer(10 * STEP));
+    // a reversal that exceeds the deadband passes.
+    assertTrue(filter.offer(9 * STEP));
+    assertTrue(filter.offer(8 * STEP));
+  }
+
+  @Test
+  void endsAlwaysPass() {
+    AbsValueFilter filter = new AbsValueFilter(clock, 10 * STEP, 0);
+    filter.offer(0.5);
+    filter.offer(0.99);
+    assertTrue(filter.offer(1.0));
+    filter.offer(0.01);
+    assertTrue(filter.offer(0.0));
+  }
+
+  @Test
+  void valueWithinIntervalIsHeld() {
+    AbsValueFilter filter = new AbsValueFilter(clock, 0.0, 10);
+    assertTrue(filter.offer(0.1));
+    clock.advance(2);
+    assertFalse(filter.offer(0.2));
+    assertFalse(filter.offer(0.3));
+    assertTrue(filter.isPending());
+    assertEquals(8, filter.getRemainingDelay());
+    // not due yet.
+    assertTrue(Double.isNaN(filter.drain()));
+    assertTrue(filter.isPending());
+    clock.advance(8);
+    assertEquals(0, filter.getRemainingDelay());
+    assertEquals(0.3, filter.drain());
+    assertFalse(filter.isPending());
+    assertTrue(Double.isNaN(filter.drain()));
+    // superseded 0.2
+    assertEquals(1, filter.getDroppedCount());
+    assertEquals(2, filter.getDeliveredCount());
+  }
+
+  @Test
+  void valueAfterIntervalPasses() {
+    AbsValueFilter filter = new AbsValueFilter(clock, 0.0, 10);
+    assertTrue(filter.offer(0.1));
+    clock.advance(10);
+    assertTrue(filter.offer(0.2));
+    assertFalse(filter.isPending());
+  }
+
+  @Test
+  void invalidSettingsAreRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new AbsValueFilter(clock, -0.1, 10));
+    assertThrows(IllegalArgumentException.class, () -> new AbsValueFilter(clock, 0.0, -1));
+  }
+}
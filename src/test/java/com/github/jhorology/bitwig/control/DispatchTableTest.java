@@ -0,0 +1,96 @@
+package com.github.jhorology.bitwig.control;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DispatchTableTest {
+  private int shift;
+  private int select;
+  private StringBuilder log;
+
+  @BeforeEach
+  void setUp() {
+    shift = Modifier.allocate();
+    select = Modifier.allocate();
+    log = new StringBuilder();
+  }
+
+  @AfterEach
+  void tearDown() {
+    Modifier.release(shift);
+    Modifier.release(select);
+  }
+
+  @Test
+  void unconditionalHandlersRunInOrder() {
+    DispatchTable table = new DispatchTable();
+    table.add(null, () -> log.append('a'));
+    table.add(null, () -> log.append('b'));
+    table.run();
+    Modifier.update(shift, true);
+    table.run();
+    assertEquals("abab", log.toString());
+  }
+
+  @Test
+  void conditionalHandlersMatchModifierState() {
+    DispatchTable table = new DispatchTable();
+    table.add(new Modifier(shift, 0), () -> log.append('r'));
+    table.add(new Modifier(shift, shift), () -> log.append('p'));
+    table.add(null, () -> log.append('*'));
+    table.run();
+    Modifier.update(shift, true);
+    table.run();
+    // a modifier that no handler depends on is ignored.
+    Modifier.update(select, true);
+    table.run();
+    assertEquals("r*p*p*", log.toString());
+  }
+
+  @Test
+  void combinedConditions() {
+    Modifier both = new Modifier(shift, shift).and(new Modifier(select, select));
+    assertEquals(shift | select, both.mask());
+    assertFalse(both.getAsBoolean());
+    DispatchTable table = new DispatchTable();
+    table.add(both, () -> log.append('x'));
+    Modifier.update(shift, true);
+    table.run();
+    Modifier.update(select, true);
+    assertTrue(both.getAsBoolean());
+    table.run();
+    assertEquals("x", log.toString());
+  }
+
+  @Test
+  void conflictingConditionsAreRejected() {
+    Modifier pressed = new Modifier(shift, shift);
+    Modifier released = new Modifier(shift, 0);
+    assertThrows(IllegalArgumentException.class, () -> pressed.and(released));
+  }
+
+  @Test
+  void addAfterRunRecompiles() {
+    DispatchTable table = new DispatchTable();
+    table.add(null, () -> log.append('a'));
+    table.run();
+    table.add(new Modifier(shift, shift), () -> log.append('s'));
+    Modifier.update(shift, true);
+    table.run();
+    table.clear();
+    table.run();
+    assertEquals("aas", log.toString());
+  }
+
+  @Test
+  void releaseClearsState() {
+    Modifier.update(shift, true);
+    Modifier.release(shift);
+    assertEquals(0, Modifier.state() & shift);
+    // a released bit is allocated again.
+    assertEquals(shift, Modifier.allocate());
+  }
+}
@@ -0,0 +1,192 @@
+package com.github.jhorology.bitwig.control;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bitwig.extension.controller.api.ControllerHost;
+import com.github.jhorology.bitwig.control.TestControl.TestLedState;
+import com.github.jhorology.bitwig.headless.HeadlessSurface;
+import com.github.jhorology.bitwig.headless.Stubs;
+import com.github.jhorology.bitwig.utils.Hook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LayersTest {
+  private ControllerHost host;
+  private ControlRegistry<TestControl> registry;
+  private TestControl[] buttons;
+  private TestControl common;
+  private StringBuilder log;
+
+  @BeforeEach
+  void setUp() {
+    Hook.init();
+    host = Stubs.create(ControllerHost.class, "host");
+    registry = new ControlRegistry<>();
+    HeadlessSurface surface = new HeadlessSurface();
+    buttons = new TestControl[4];
+    for (int i = 0; i < buttons.length; i++) {
+      buttons[i] = new TestControl(registry, "C" + i, Control.BUTTON).init(surface.api());
+    }
+    common =
+        new TestControl(registry, "COMMON", Control.BUTTON | Control.COMMON).init(surface.api());
+    log = new StringBuilder();
+  }
+
+  @AfterEach
+  void tearDown() {
+    for (TestControl control : buttons) {
+      control.dispose();
+    }
+    common.dispose();
+    Hook.exit();
+  }
+
+  @Test
+  void pushAndPopRestoreOwners() {
+    Layers<TestControl, TestLedState> layers =
+        new Layers<>(
+            registry,
+            "test",
+            new TestLayer(host, 'b', false, 0, 1, 2, 3),
+            new Overlay(host, 'o', 1, 2),
+            new TopOverlay(host, 't', 2, 3));
+    layers.init();
+    layers.open(TestLayer.class);
+    assertEquals("bbbb", owners());
+    layers.open(Overlay.class);
+    assertEquals("boob", owners());
+    layers.open(TopOverlay.class);
+    assertEquals("bott", owners());
+    layers.closeOverlay();
+    assertEquals("boob", owners());
+    layers.open(TopOverlay.class);
+    // closing a stacked overlay closes overlays on it.
+    layers.close(Overlay.class);
+    assertEquals("bbbb", owners());
+    layers.exit();
+    assertEquals("----", owners());
+  }
+
+  @Test
+  void handlersFollowOwner() {
+    Layers<TestControl, TestLedState> layers =
+        new Layers<>(
+            registry, "test", new TestLayer(host, 'b', false, 0, 1), new Overlay(host, 'o', 1));
+    layers.init();
+    layers.open(TestLayer.class);
+    click(buttons[1]);
+    layers.open(Overlay.class);
+    click(buttons[1]);
+    click(buttons[0]);
+    layers.closeOverlay();
+    click(buttons[1]);
+    assertEquals("bobb", log.toString());
+    layers.exit();
+  }
+
+  @Test
+  void replaceBaseLayerHandsOverCommonControls() {
+    Layers<TestControl, TestLedState> layers =
+        new Layers<>(
+            registry, "test", new CommonLayer(host, 'b', 0), new TestLayer(host, 'x', false, 0, 1));
+    layers.init();
+    layers.open(CommonLayer.class);
+    assertSame(CommonLayer.class, common.getOwner().getClass());
+    layers.open(TestLayer.class);
+    // the common control is kept mapped by the first base layer, but owned by the current one.
+    assertSame(TestLayer.class, common.getOwner().getClass());
+    assertEquals("xx--", owners());
+    click(common);
+    assertEquals("b", log.toString());
+    layers.open(CommonLayer.class);
+    assertSame(CommonLayer.class, common.getOwner().getClass());
+    assertEquals("b---", owners());
+    layers.open(TestLayer.class);
+    layers.exit();
+    assertNull(common.getOwner());
+  }
+
+  @Test
+  void regionsRejectSharedControls() {
+    Layers<TestControl, TestLedState> left =
+        new Layers<>(registry, "left", new TestLayer(host, 'l', false, 0, 1));
+    Layers<TestControl, TestLedState> right =
+        new Layers<>(registry, "right", new Overlay(host, 'r', 1, 2));
+    left.init();
+    assertThrows(IllegalStateException.class, right::init);
+    left.exit();
+  }
+
+  @Test
+  void overlayRequiresBaseLayer() {
+    Layers<TestControl, TestLedState> layers =
+        new Layers<>(registry, "test", new Overlay(host, 'o', 0));
+    layers.init();
+    assertThrows(IllegalStateException.class, () -> layers.open(Overlay.class));
+    layers.exit();
+  }
+
+  private String owners() {
+    StringBuilder sb = new StringBuilder();
+    for (TestControl control : buttons) {
+      Object owner = control.getOwner();
+      sb.append(owner == null ? '-' : ((TestLayer) owner).id);
+    }
+    return sb.toString();
+  }
+
+  private static void click(TestControl control) {
+    control.press(true);
+    control.press(false);
+  }
+
+  private class TestLayer extends Layer<TestControl, TestLedState> {
+    private final char id;
+    private final boolean overlay;
+    private final int[] indexes;
+
+    TestLayer(ControllerHost host, char id, boolean overlay, int... indexes) {
+      super(host);
+      this.id = id;
+      this.overlay = overlay;
+      this.indexes = indexes;
+    }
+
+    @Override
+    protected boolean isOverlay() {
+      return overlay;
+    }
+
+    @Override
+    protected void setup() {
+      for (int index : indexes) {
+        use(buttons[index].onPressed(() -> log.append(id)));
+      }
+    }
+  }
+
+  private class Overlay extends TestLayer {
+    Overlay(ControllerHost host, char id, int... indexes) {
+      super(host, id, true, indexes);
+    }
+  }
+
+  private class TopOverlay extends TestLayer {
+    TopOverlay(ControllerHost host, char id, int... indexes) {
+      super(host, id, true, indexes);
+    }
+  }
+
+  private class CommonLayer extends TestLayer {
+    CommonLayer(ControllerHost host, char id, int... indexes) {
+      super(host, id, false, indexes);
+    }
+
+    @Override
+    protected void setup() {
+      super.setup();
+      use(common.onPressed(() -> log.append('b')));
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.github.jhorology.bitwig.control;
+
+import com.bitwig.extension.controller.api.AbsoluteHardwareValueMatcher;
+import com.bitwig.extension.controller.api.HardwareActionMatcher;
+import com.bitwig.extension.controller.api.HardwareLightVisualState;
+import com.bitwig.extension.controller.api.HardwareSurface;
+import com.bitwig.extension.controller.api.InternalHardwareLightState;
+import com.bitwig.extension.controller.api.MidiIn;
+import com.bitwig.extension.controller.api.RelativeHardwareValueMatcher;
+import com.github.jhorology.bitwig.headless.Stubs;
+
+/** A control on headless surface without MIDI matchers. */
+class TestControl extends Control<TestControl, TestControl.TestLedState> {
+  private final String name;
+  private final int spec;
+
+  TestControl(ControlRegistry<TestControl> registry, String name, int spec) {
+    super(registry);
+    this.name = name;
+    this.spec = spec;
+  }
+
+  TestControl init(HardwareSurface surface) {
+    initialize(surface, Stubs.create(MidiIn.class, "midiIn"), null);
+    return this;
+  }
+
+  void press(boolean pressed) {
+    setRawInput(true);
+    rawPressed(pressed);
+  }
+
+  @Override
+  protected String name() {
+    return name;
+  }
+
+  @Override
+  protected TestLedState getDefaultLedOffState() {
+    return TestLedState.OFF;
+  }
+
+  @Override
+  protected int getSpec() {
+    return spec;
+  }
+
+  @Override
+  protected HardwareActionMatcher createPressedActionMatcher(MidiIn midiIn) {
+    return null;
+  }
+
+  @Override
+  protected HardwareActionMatcher createReleasedActionMatcher(MidiIn midiIn) {
+    return null;
+  }
+
+  @Override
+  protected AbsoluteHardwareValueMatcher createAbsValueMatcher(MidiIn midiIn) {
+    return null;
+  }
+
+  @Override
+  protected RelativeHardwareValueMatcher createRelValueMatcher(MidiIn midiIn) {
+    return null;
+  }
+
+  @Override
+  protected void sendLedState(TestLedState state) {}
+
+  static class TestLedState extends InternalHardwareLightState {
+    static final TestLedState OFF = new TestLedState();
+
+    @Override
+    public HardwareLightVisualState getVisualState() {
+      return null;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return this == obj;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(this);
+    }
+  }
+}
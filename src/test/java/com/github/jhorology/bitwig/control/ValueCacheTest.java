@@ -0,0 +1,125 @@
+package com.github.jhorology.bitwig.control;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ValueCacheTest {
+  private static final int ORDINAL = 0;
+  private ControlRegistry<TestControl> registry;
+  private TestControl control;
+  private ValueCache cache;
+
+  @BeforeEach
+  void setUp() {
+    registry = new ControlRegistry<>();
+    control = new TestControl(registry, "KNOB", Control.ENCODER);
+    cache = registry.getValueCache();
+  }
+
+  @Test
+  void unknownHostValueIsTakenOverImmediately() {
+    assertTrue(Double.isNaN(cache.getHostValue(control)));
+    assertTrue(cache.pickup(ORDINAL, 0.8));
+    assertTrue(cache.isPickedUp(control));
+  }
+
+  @Test
+  void takenOverWithinTolerance() {
+    cache.attach(ORDINAL, 0.5);
+    assertEquals(0.5, cache.getHostValue(control));
+    move(0.2);
+    assertFalse(pickup(0.3));
+    assertFalse(cache.isPickedUp(control));
+    assertTrue(pickup(0.5 - ValueCache.DEFAULT_TOLERANCE / 2));
+    assertTrue(cache.isPickedUp(control));
+  }
+
+  @Test
+  void takenOverByCrossing() {
+    cache.setTolerance(0.0);
+    cache.attach(ORDINAL, 0.5);
+    move(0.2);
+    assertFalse(pickup(0.4));
+    // jumps over the host value.
+    assertTrue(pickup(0.7));
+  }
+
+  @Test
+  void unknownPreviousValueNeverCrosses() {
+    cache.setTolerance(0.0);
+    cache.attach(ORDINAL, 0.5);
+    assertFalse(cache.pickup(ORDINAL, 0.9));
+  }
+
+  @Test
+  void echoesKeepPickup() {
+    cache.attach(ORDINAL, 0.5);
+    assertTrue(pickup(0.5));
+    assertTrue(pickup(0.6));
+    assertTrue(pickup(0.7));
+    // older echoes arrive after newer values are sent.
+    cache.update(ORDINAL, 0.6);
+    assertTrue(cache.isPickedUp(control));
+    cache.update(ORDINAL, 0.7);
+    assertTrue(cache.isPickedUp(control));
+    assertEquals(0.7, cache.getHostValue(control));
+  }
+
+  @Test
+  void otherChangeReleasesPickup() {
+    cache.attach(ORDINAL, 0.5);
+    assertTrue(pickup(0.5));
+    assertTrue(pickup(0.6));
+    // e.g. automation or mouse edit.
+    cache.update(ORDINAL, 0.1);
+    assertFalse(cache.isPickedUp(control));
+    move(0.7);
+    assertFalse(pickup(0.6));
+  }
+
+  @Test
+  void echoRangeIsNarrowedWhenHostCatchesUp() {
+    cache.attach(ORDINAL, 0.2);
+    assertTrue(pickup(0.2));
+    assertTrue(pickup(0.5));
+    cache.update(ORDINAL, 0.5);
+    // 0.2 was echoed before, it's not an echo anymore.
+    cache.update(ORDINAL, 0.2);
+    assertFalse(cache.isPickedUp(control));
+  }
+
+  @Test
+  void attachResetsPickup() {
+    cache.attach(ORDINAL, 0.5);
+    assertTrue(pickup(0.5));
+    cache.attach(ORDINAL, 0.9);
+    assertFalse(cache.isPickedUp(control));
+    assertEquals(0.9, cache.getHostValue(control));
+  }
+
+  @Test
+  void cacheIsScopedByRegistry() {
+    cache.attach(ORDINAL, 0.5);
+    ControlRegistry<TestControl> other = new ControlRegistry<>();
+    TestControl otherControl = new TestControl(other, "KNOB", Control.ENCODER);
+    assertEquals(ORDINAL, otherControl.ordinal());
+    assertTrue(Double.isNaN(otherControl.getValueCache().getHostValue(otherControl)));
+  }
+
+  @Test
+  void negativeToleranceIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> cache.setTolerance(-0.1));
+  }
+
+  private boolean pickup(double value) {
+    boolean pickedUp = cache.pickup(ORDINAL, value);
+    cache.move(ORDINAL, value);
+    return pickedUp;
+  }
+
+  private void move(double value) {
+    cache.move(ORDINAL, value);
+  }
+}
@@ -0,0 +1,129 @@
+package com.github.jhorology.bitwig.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bitwig.extension.controller.api.BooleanValue;
+import com.bitwig.extension.controller.api.SettableRangedValue;
+import com.github.jhorology.bitwig.headless.HeadlessHost;
+import com.github.jhorology.bitwig.headless.StubValue;
+import com.github.jhorology.bitwig.headless.Stubs;
+import com.github.jhorology.bitwig.utils.Hook.Subscription;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HookTest {
+  private static final int RELEASE_DELAY = 1000;
+  private HeadlessHost host;
+  private BooleanValue value;
+  private StubValue stub;
+  private List<Boolean> delivered;
+
+  @BeforeEach
+  void setUp() {
+    host = new HeadlessHost(1);
+    Hook.init(host.api(), RELEASE_DELAY, host.clock());
+    value = Stubs.create(BooleanValue.class, "value");
+    stub = Stubs.value(value);
+    delivered = new ArrayList<>();
+  }
+
+  @AfterEach
+  void tearDown() {
+    Hook.exit();
+  }
+
+  @Test
+  void releaseIsDeferred() {
+    Subscription<Boolean> subscription = Hook.subscribeBoolean(value, delivered::add);
+    assertTrue(stub.isSubscribed());
+    subscription.unsubscribe();
+    host.advance(RELEASE_DELAY - 1);
+    assertTrue(stub.isSubscribed());
+    host.advance(1);
+    assertFalse(stub.isSubscribed());
+    assertEquals(1, stub.getUnsubscribeCount());
+  }
+
+  @Test
+  void resubscribeWithinGracePeriodReplaysLastValue() {
+    Subscription<Boolean> subscription = Hook.subscribeBoolean(value, delivered::add);
+    stub.fire(true);
+    subscription.unsubscribe();
+    host.advance(RELEASE_DELAY / 2);
+    // the host doesn't notify a value that is still subscribed, the last value is replayed.
+    Hook.subscribeBoolean(value, delivered::add);
+    assertEquals(List.of(true, true), delivered);
+    assertEquals(1, stub.getSubscribeCount());
+    // the pending release of previous generation is ignored.
+    host.advance(RELEASE_DELAY);
+    assertTrue(stub.isSubscribed());
+    assertEquals(0, stub.getUnsubscribeCount());
+  }
+
+  @Test
+  void releaseOfLaterGenerationIsKept() {
+    Subscription<Boolean> first = Hook.subscribeBoolean(value, delivered::add);
+    first.unsubscribe();
+    host.advance(RELEASE_DELAY / 2);
+    Subscription<Boolean> second = Hook.subscribeBoolean(value, delivered::add);
+    second.unsubscribe();
+    host.advance(RELEASE_DELAY / 2);
+    // the first release is superseded.
+    assertTrue(stub.isSubscribed());
+    host.advance(RELEASE_DELAY / 2);
+    assertFalse(stub.isSubscribed());
+  }
+
+  @Test
+  void resubscribeAfterReleaseSubscribesAgain() {
+    Subscription<Boolean> subscription = Hook.subscribeBoolean(value, delivered::add);
+    stub.fire(true);
+    subscription.unsubscribe();
+    host.advance(RELEASE_DELAY);
+    Hook.subscribeBoolean(value, delivered::add);
+    assertEquals(2, stub.getSubscribeCount());
+    // a released value is notified by host again, nothing is replayed.
+    assertEquals(List.of(true), delivered);
+  }
+
+  @Test
+  void secondSubscriptionIsNotReplayed() {
+    Hook.subscribeBoolean(value, delivered::add);
+    stub.fire(true);
+    Hook.subscribeBoolean(value, delivered::add);
+    assertEquals(List.of(true), delivered);
+  }
+
+  @Test
+  void releaseIsImmediateWithoutHost() {
+    Hook.exit();
+    Hook.init();
+    Subscription<Boolean> subscription = Hook.subscribeBoolean(value, delivered::add);
+    subscription.unsubscribe();
+    assertFalse(stub.isSubscribed());
+  }
+
+  @Test
+  void coalescedSubscriptionDeliversLatestValueAtFlush() {
+    SettableRangedValue ranged = Stubs.create(SettableRangedValue.class, "ranged");
+    StubValue rangedStub = Stubs.value(ranged);
+    List<Double> values = new ArrayList<>();
+    Hook.subscribeDouble(ranged, values::add, 50);
+    rangedStub.fire(0.1);
+    rangedStub.fire(0.2);
+    Hook.flush();
+    assertEquals(List.of(0.2), values);
+    rangedStub.fire(0.3);
+    Hook.flush();
+    // within the minimum interval.
+    assertEquals(List.of(0.2), values);
+    assertTrue(Hook.isPending());
+    host.advance(50);
+    Hook.flush();
+    assertEquals(List.of(0.2, 0.3), values);
+    assertEquals(0.3, Hook.lastDouble(ranged));
+  }
+}
@@ -0,0 +1,150 @@
+package com.github.jhorology.bitwig.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.jhorology.bitwig.headless.ManualClock;
+import com.github.jhorology.bitwig.utils.TimingWheel.Timeout;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+  private ManualClock clock;
+  // wakeups that are armed by the wheel.
+  private List<Runnable> wakeups;
+  private List<Long> delays;
+
+  @BeforeEach
+  void setUp() {
+    clock = new ManualClock(1000);
+    wakeups = new ArrayList<>();
+    delays = new ArrayList<>();
+  }
+
+  @Test
+  void expiresAtDeadline() {
+    TimingWheel wheel = new TimingWheel(10, 8, clock, null);
+    int[] count = {0};
+    Timeout timeout = wheel.schedule(() -> count[0]++, 25);
+    clock.advance(24);
+    wheel.advance();
+    assertEquals(0, count[0]);
+    assertTrue(timeout.isPending());
+    clock.advance(1);
+    wheel.advance();
+    assertEquals(1, count[0]);
+    assertFalse(timeout.isPending());
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void deadlineBeyondWheelSpanIsNotExpiredEarly() {
+    // a span of wheel is 4 slots x 10ms.
+    TimingWheel wheel = new TimingWheel(10, 4, clock, null);
+    int[] count = {0};
+    wheel.schedule(() -> count[0]++, 95);
+    for (int i = 0; i < 9; i++) {
+      clock.advance(10);
+      wheel.advance();
+    }
+    assertEquals(0, count[0]);
+    clock.advance(5);
+    wheel.advance();
+    assertEquals(1, count[0]);
+  }
+
+  @Test
+  void cancelAndReschedule() {
+    TimingWheel wheel = new TimingWheel(10, 8, clock, null);
+    int[] count = {0};
+    Timeout timeout = wheel.schedule(() -> count[0]++, 10);
+    wheel.cancel(timeout);
+    assertFalse(timeout.isPending());
+    assertEquals(Long.MAX_VALUE, wheel.nextDeadline());
+    wheel.schedule(timeout, 30);
+    wheel.schedule(timeout, 50);
+    assertEquals(1, wheel.size());
+    assertEquals(1050, wheel.nextDeadline());
+    clock.advance(30);
+    wheel.advance();
+    assertEquals(0, count[0]);
+    clock.advance(20);
+    wheel.advance();
+    assertEquals(1, count[0]);
+  }
+
+  @Test
+  void nextDeadlineAfterEarliestIsCanceled() {
+    TimingWheel wheel = new TimingWheel(10, 8, clock, null);
+    Timeout first = wheel.schedule(() -> {}, 10);
+    wheel.schedule(() -> {}, 40);
+    assertEquals(1010, wheel.nextDeadline());
+    wheel.cancel(first);
+    assertEquals(1040, wheel.nextDeadline());
+  }
+
+  @Test
+  void taskCanRescheduleItself() {
+    TimingWheel wheel = new TimingWheel(10, 8, clock, null);
+    int[] count = {0};
+    Timeout[] timeout = new Timeout[1];
+    timeout[0] =
+        new Timeout(
+            () -> {
+              if (++count[0] < 3) {
+                wheel.schedule(timeout[0], 10);
+              }
+            });
+    wheel.schedule(timeout[0], 10);
+    for (int i = 0; i < 5; i++) {
+      clock.advance(10);
+      wheel.advance();
+    }
+    assertEquals(3, count[0]);
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void armsSingleWakeupForEarliestDeadline() {
+    TimingWheel wheel = new TimingWheel(10, 8, clock, this::schedule);
+    int[] count = {0};
+    wheel.schedule(() -> count[0]++, 50);
+    wheel.schedule(() -> count[0]++, 70);
+    assertEquals(1, wakeups.size());
+    assertEquals(50, delays.get(0));
+    // an earlier deadline arms an earlier wakeup, the previous one is superseded.
+    wheel.schedule(() -> count[0]++, 20);
+    assertEquals(2, wakeups.size());
+    assertEquals(20, delays.get(1));
+    clock.advance(20);
+    wakeups.get(1).run();
+    assertEquals(1, count[0]);
+    // the next wakeup is armed for the remaining earliest deadline.
+    assertEquals(3, wakeups.size());
+    assertEquals(30, delays.get(2));
+    clock.advance(30);
+    wakeups.get(0).run();
+    assertEquals(1, count[0]);
+    wakeups.get(2).run();
+    assertEquals(2, count[0]);
+  }
+
+  @Test
+  void staysIdleWhileNoTimeoutsArePending() {
+    TimingWheel wheel = new TimingWheel(10, 8, clock, this::schedule);
+    Timeout timeout = wheel.schedule(() -> {}, 10);
+    wheel.cancel(timeout);
+    clock.advance(10);
+    wakeups.get(0).run();
+    assertEquals(1, wakeups.size());
+    wheel.clear();
+    assertEquals(0, wheel.size());
+    assertEquals(1, wakeups.size());
+  }
+
+  private void schedule(Runnable task, long delay) {
+    wakeups.add(task);
+    delays.add(delay);
+  }
+}
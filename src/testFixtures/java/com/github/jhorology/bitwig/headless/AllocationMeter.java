@@ -0,0 +1,65 @@
+package com.github.jhorology.bitwig.headless;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures heap allocation of the current thread.
+ *
+ * <p>Uses the HotSpot specific com.sun.management.ThreadMXBean, the measurement includes a few
+ * bytes of its own overhead, it's subtracted by calibration.
+ */
+public final class AllocationMeter {
+  private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private AllocationMeter() {}
+
+  /**
+   * Returns allocated bytes of the current thread since thread started.
+   *
+   * @return allocated bytes
+   */
+  public static long allocatedBytes() {
+    return THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * Measure allocated bytes while running a task repeatedly.
+   *
+   * @param iterations number of iterations
+   * @param task a task to measure
+   * @return allocated bytes per iteration
+   */
+  public static double measure(int iterations, Runnable task) {
+    long overhead = allocatedBytes();
+    overhead = allocatedBytes() - overhead;
+    long start = allocatedBytes();
+    for (int i = 0; i < iterations; i++) {
+      task.run();
+    }
+    long bytes = allocatedBytes() - start - overhead;
+    return Math.max(0, bytes) / (double) iterations;
+  }
+
+  /**
+   * Assert that a task doesn't allocate after warm-up.
+   *
+   * <p>The task is run {@code iterations} times to warm-up before measuring, so that JIT compiler
+   * can eliminate allocations that never escape.
+   *
+   * @param name name of task for the error message
+   * @param iterations number of iterations for warm-up and measurement
+   * @param task a task to measure
+   * @throws IllegalStateException if the task allocates
+   */
+  public static void assertNoAllocation(String name, int iterations, Runnable task) {
+    for (int i = 0; i < iterations; i++) {
+      task.run();
+    }
+    double bytes = measure(iterations, task);
+    if (bytes > 0) {
+      throw new IllegalStateException(
+          String.format("[%s] allocates %.2f bytes per iteration.", name, bytes));
+    }
+  }
+}
@@ -0,0 +1,241 @@
+package com.github.jhorology.bitwig.headless;
+
+import com.bitwig.extension.controller.api.ControllerHost;
+import com.bitwig.extension.controller.api.CursorTrack;
+import com.bitwig.extension.controller.api.HardwareActionBindable;
+import com.bitwig.extension.controller.api.TrackBank;
+import com.bitwig.extension.controller.api.Transport;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A headless ControllerHost.
+ *
+ * <p>Scheduled tasks are not run by itself, a caller advances the virtual time by {@link
+ * #advance(long)}. {@code createTransport()}, {@code createCursorTrack(...)} and {@code
+ * createTrackBank(...)} return a single instance regardless of arguments, so a caller can drive the
+ * same objects that the extension observes.
+ */
+public class HeadlessHost {
+  private final ControllerHost api;
+  private final HeadlessSurface surface;
+  private final List<HeadlessMidiIn> midiInPorts = new ArrayList<>();
+  private final List<HeadlessMidiOut> midiOutPorts = new ArrayList<>();
+  private final Transport transport;
+  private final CursorTrack cursorTrack;
+  private final TrackBank trackBank;
+  private final PriorityQueue<Task> tasks = new PriorityQueue<>();
+  private final ManualClock clock = new ManualClock();
+  private long sequence;
+
+  private static class Task implements Comparable<Task> {
+    private final long time;
+    private final long sequence;
+    private final Runnable callback;
+
+    private Task(long time, long sequence, Runnable callback) {
+      this.time = time;
+      this.sequence = sequence;
+      this.callback = callback;
+    }
+
+    @Override
+    public int compareTo(Task o) {
+      int c = Long.compare(time, o.time);
+      return c != 0 ? c : Long.compare(sequence, o.sequence);
+    }
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param numMidiPorts number of MIDI in/out ports.
+   */
+  public HeadlessHost(int numMidiPorts) {
+    this.surface = new HeadlessSurface();
+    for (int i = 0; i < numMidiPorts; i++) {
+      midiInPorts.add(new HeadlessMidiIn("midiIn" + i, surface));
+      midiOutPorts.add(new HeadlessMidiOut("midiOut" + i));
+    }
+    this.transport = createTransport();
+    this.cursorTrack = Stubs.create(CursorTrack.class, "cursorTrack");
+    this.trackBank = Stubs.create(TrackBank.class, "trackBank");
+    this.api =
+        Stubs.create(
+            ControllerHost.class,
+            "host",
+            (proxy, method, args) -> {
+              switch (method.getName()) {
+                case "createHardwareSurface":
+                  return surface.api();
+                case "getMidiInPort":
+                  return midiInPorts.get((Integer) args[0]).api();
+                case "getMidiOutPort":
+                  return midiOutPorts.get((Integer) args[0]).api();
+                case "createTransport":
+                  return transport;
+                case "createCursorTrack":
+                  return cursorTrack;
+                case "createTrackBank":
+                  return trackBank;
+                case "scheduleTask":
+                  tasks.add(
+                      new Task(clock.millis() + (Long) args[1], sequence++, (Runnable) args[0]));
+                  return null;
+                default:
+                  return Stubs.DEFAULT;
+              }
+            });
+  }
+
+  /**
+   * Returns the API interface of this host.
+   *
+   * @return ControllerHost
+   */
+  public ControllerHost api() {
+    return api;
+  }
+
+  /**
+   * Returns a hardware surface.
+   *
+   * @return surface
+   */
+  public HeadlessSurface surface() {
+    return surface;
+  }
+
+  /**
+   * Returns a MIDI input port.
+   *
+   * @param index index of port
+   * @return MIDI input port
+   */
+  public HeadlessMidiIn midiIn(int index) {
+    return midiInPorts.get(index);
+  }
+
+  /**
+   * Returns a MIDI output port.
+   *
+   * @param index index of port
+   * @return MIDI output port
+   */
+  public HeadlessMidiOut midiOut(int index) {
+    return midiOutPorts.get(index);
+  }
+
+  /**
+   * Returns a transport, play/stop actions change isPlaying() value.
+   *
+   * @return transport
+   */
+  public Transport transport() {
+    return transport;
+  }
+
+  /**
+   * Returns a cursor track.
+   *
+   * @return cursor track
+   */
+  public CursorTrack cursorTrack() {
+    return cursorTrack;
+  }
+
+  /**
+   * Returns a track bank.
+   *
+   * @return track bank
+   */
+  public TrackBank trackBank() {
+    return trackBank;
+  }
+
+  /**
+   * Returns a current virtual time.
+   *
+   * @return time in milliseconds
+   */
+  public long currentTimeMillis() {
+    return clock.millis();
+  }
+
+  /**
+   * Returns a clock of the virtual time, time-based logic should use this clock to follow {@link
+   * #advance(long)}.
+   *
+   * @return clock
+   */
+  public ManualClock clock() {
+    return clock;
+  }
+
+  /**
+   * Returns a number of pending scheduled tasks.
+   *
+   * @return number of tasks
+   */
+  public int getPendingTaskCount() {
+    return tasks.size();
+  }
+
+  /**
+   * Advance the virtual time and run due tasks.
+   *
+   * @param millis elapsed time in milliseconds
+   */
+  public void advance(long millis) {
+    long endTime = clock.millis() + millis;
+    while (!tasks.isEmpty() && tasks.peek().time <= endTime) {
+      Task task = tasks.poll();
+      clock.set(task.time);
+      task.callback.run();
+    }
+    clock.set(endTime);
+  }
+
+  private static Transport createTransport() {
+    Transport[] transport = new Transport[1];
+    HardwareActionBindable playAction =
+        action("transport.playAction()", () -> Stubs.value(transport[0].isPlaying()).fire(true));
+    HardwareActionBindable stopAction =
+        action("transport.stopAction()", () -> Stubs.value(transport[0].isPlaying()).fire(false));
+    transport[0] =
+        Stubs.create(
+            Transport.class,
+            "transport",
+            (proxy, method, args) -> {
+              switch (method.getName()) {
+                case "playAction":
+                  return playAction;
+                case "stopAction":
+                  return stopAction;
+                case "play":
+                  playAction.invoke();
+                  return null;
+                case "stop":
+                  stopAction.invoke();
+                  return null;
+                default:
+                  return Stubs.DEFAULT;
+              }
+            });
+    return transport[0];
+  }
+
+  private static HardwareActionBindable action(String name, Runnable action) {
+    return Stubs.create(
+        HardwareActionBindable.class,
+        name,
+        (proxy, method, args) -> {
+          if (method.getName().equals("invoke")) {
+            action.run();
+            return null;
+          }
+          return Stubs.DEFAULT;
+        });
+  }
+}
@@ -0,0 +1,120 @@
+package com.github.jhorology.bitwig.headless;
+
+import com.bitwig.extension.callback.ShortMidiMessageReceivedCallback;
+import com.bitwig.extension.controller.api.AbsoluteHardwareValueMatcher;
+import com.bitwig.extension.controller.api.HardwareActionMatcher;
+import com.bitwig.extension.controller.api.MidiIn;
+import com.bitwig.extension.controller.api.RelativeHardwareValueMatcher;
+
+/**
+ * A headless MidiIn.
+ *
+ * <p>Received messages are delivered to the registered MIDI callback and to the hardware surface
+ * that matches the messages with matchers created by this port.
+ */
+public class HeadlessMidiIn {
+  private final MidiIn api;
+  private final HeadlessSurface surface;
+  private ShortMidiMessageReceivedCallback callback;
+
+  /** A kind of matcher. */
+  static enum Kind {
+    NOTE_ON,
+    NOTE_OFF,
+    ABSOLUTE_CC,
+    RELATIVE_2S_COMPLEMENT_CC
+  }
+
+  /** A spec of matcher, this is attached to a matcher stub. */
+  static class Matcher {
+    final HeadlessMidiIn port;
+    final Kind kind;
+    final int channel;
+    final int number;
+    final int amountPerRotation;
+
+    private Matcher(HeadlessMidiIn port, Kind kind, int channel, int number, int amount) {
+      this.port = port;
+      this.kind = kind;
+      this.channel = channel;
+      this.number = number;
+      this.amountPerRotation = amount;
+    }
+
+    boolean matches(HeadlessMidiIn port, int status, int data1, int data2) {
+      if (this.port != port || (status & 0xF) != channel || data1 != number) {
+        return false;
+      }
+      switch (kind) {
+        case NOTE_ON:
+          return (status & 0xF0) == 0x90 && data2 > 0;
+        case NOTE_OFF:
+          return (status & 0xF0) == 0x80 || ((status & 0xF0) == 0x90 && data2 == 0);
+        default:
+          return (status & 0xF0) == 0xB0;
+      }
+    }
+
+    @Override
+    public String toString() {
+      return kind + "[ch=" + channel + ", number=" + number + "]";
+    }
+  }
+
+  HeadlessMidiIn(String name, HeadlessSurface surface) {
+    this.surface = surface;
+    this.api =
+        Stubs.create(
+            MidiIn.class,
+            name,
+            (proxy, method, args) -> {
+              switch (method.getName()) {
+                case "setMidiCallback":
+                  callback = (ShortMidiMessageReceivedCallback) args[0];
+                  return null;
+                case "createNoteOnActionMatcher":
+                  return matcher(HardwareActionMatcher.class, Kind.NOTE_ON, args, 0);
+                case "createNoteOffActionMatcher":
+                  return matcher(HardwareActionMatcher.class, Kind.NOTE_OFF, args, 0);
+                case "createAbsoluteCCValueMatcher":
+                  return matcher(AbsoluteHardwareValueMatcher.class, Kind.ABSOLUTE_CC, args, 0);
+                case "createRelative2sComplementCCValueMatcher":
+                  return matcher(
+                      RelativeHardwareValueMatcher.class,
+                      Kind.RELATIVE_2S_COMPLEMENT_CC,
+                      args,
+                      (Integer) args[2]);
+                default:
+                  return Stubs.DEFAULT;
+              }
+            });
+  }
+
+  /**
+   * Returns the API interface of this port.
+   *
+   * @return MidiIn
+   */
+  public MidiIn api() {
+    return api;
+  }
+
+  /**
+   * Receive a short MIDI message from device.
+   *
+   * @param status status byte
+   * @param data1 data1 byte
+   * @param data2 data2 byte
+   */
+  public void receive(int status, int data1, int data2) {
+    if (callback != null) {
+      callback.midiReceived(status, data1, data2);
+    }
+    surface.midiReceived(this, status, data1, data2);
+  }
+
+  private <T> T matcher(Class<T> type, Kind kind, Object[] args, int amount) {
+    Matcher matcher = new Matcher(this, kind, (Integer) args[0], (Integer) args[1], amount);
+    return Stubs.create(type, matcher.toString(), null, matcher);
+  }
+}
@@ -0,0 +1,78 @@
+package com.github.jhorology.bitwig.headless;
+
+import com.bitwig.extension.controller.api.MidiOut;
+import java.util.ArrayList;
+import java.util.List;
+
+/** A headless MidiOut that counts sent messages. */
+public class HeadlessMidiOut {
+  /** A listener of short MIDI messages. */
+  @FunctionalInterface
+  public static interface Listener {
+    void midiSent(int status, int data1, int data2);
+  }
+
+  private final MidiOut api;
+  private final List<Listener> listeners = new ArrayList<>();
+  private long count;
+
+  public HeadlessMidiOut(String name) {
+    this.api =
+        Stubs.create(
+            MidiOut.class,
+            name,
+            (proxy, method, args) -> {
+              if (method.getName().equals("sendMidi")) {
+                send((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+                return null;
+              }
+              return Stubs.DEFAULT;
+            });
+  }
+
+  /**
+   * Returns the API interface of this port.
+   *
+   * @return MidiOut
+   */
+  public MidiOut api() {
+    return api;
+  }
+
+  /**
+   * Set a listener of sent messages, other listeners are removed.
+   *
+   * @param listener a listener, nullable
+   */
+  public void setListener(Listener listener) {
+    listeners.clear();
+    if (listener != null) {
+      listeners.add(listener);
+    }
+  }
+
+  /**
+   * Add a listener of sent messages, e.g. devices that are daisy-chained on this port.
+   *
+   * @param listener a listener
+   */
+  public void addListener(Listener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Returns a total number of sent messages.
+   *
+   * @return number of messages
+   */
+  public long getCount() {
+    return count;
+  }
+
+  private void send(int status, int data1, int data2) {
+    count++;
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).midiSent(status, data1, data2);
+    }
+  }
+}
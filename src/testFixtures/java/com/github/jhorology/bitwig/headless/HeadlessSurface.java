@@ -0,0 +1,392 @@
+package com.github.jhorology.bitwig.headless;
+
+import com.bitwig.extension.controller.api.AbsoluteHardwareKnob;
+import com.bitwig.extension.controller.api.BooleanValue;
+import com.bitwig.extension.controller.api.DoubleValue;
+import com.bitwig.extension.controller.api.HardwareAction;
+import com.bitwig.extension.controller.api.HardwareActionBindable;
+import com.bitwig.extension.controller.api.HardwareBinding;
+import com.bitwig.extension.controller.api.HardwareButton;
+import com.bitwig.extension.controller.api.HardwareSurface;
+import com.bitwig.extension.controller.api.InternalHardwareLightState;
+import com.bitwig.extension.controller.api.MultiStateHardwareLight;
+import com.bitwig.extension.controller.api.ObjectHardwareProperty;
+import com.bitwig.extension.controller.api.RelativeHardwareKnob;
+import com.bitwig.extension.controller.api.SettableRangedValue;
+import com.github.jhorology.bitwig.headless.HeadlessMidiIn.Matcher;
+import com.github.jhorology.bitwig.headless.Stubs.BindingSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A headless HardwareSurface.
+ *
+ * <p>Input messages are matched with matchers of hardware elements, bound targets are invoked as
+ * Bitwig does. Hardware output is updated on {@link #updateHardware()}.
+ */
+public class HeadlessSurface {
+  private final HardwareSurface api;
+  private final Map<String, Object> elements = new LinkedHashMap<>();
+  private final List<Button> buttons = new ArrayList<>();
+  private final List<AbsoluteKnob> absoluteKnobs = new ArrayList<>();
+  private final List<RelativeKnob> relativeKnobs = new ArrayList<>();
+  private final List<Light> lights = new ArrayList<>();
+
+  public HeadlessSurface() {
+    this.api =
+        Stubs.create(
+            HardwareSurface.class,
+            "surface",
+            (proxy, method, args) -> {
+              switch (method.getName()) {
+                case "createHardwareButton":
+                  return register((String) args[0], new Button((String) args[0])).api;
+                case "createAbsoluteHardwareKnob":
+                  return register((String) args[0], new AbsoluteKnob((String) args[0])).api;
+                case "createRelativeHardwareKnob":
+                  return register((String) args[0], new RelativeKnob((String) args[0])).api;
+                case "createMultiStateHardwareLight":
+                  return register((String) args[0], new Light((String) args[0])).api;
+                case "updateHardware":
+                  updateHardware();
+                  return null;
+                case "invalidateHardwareOutputState":
+                  lights.forEach(Light::invalidate);
+                  return null;
+                default:
+                  return Stubs.DEFAULT;
+              }
+            });
+  }
+
+  /**
+   * Returns the API interface of this surface.
+   *
+   * @return HardwareSurface
+   */
+  public HardwareSurface api() {
+    return api;
+  }
+
+  /**
+   * Returns a created hardware element.
+   *
+   * @param id id of element
+   * @return hardware element
+   */
+  @SuppressWarnings("unchecked")
+  public <E> E element(String id) {
+    Object element = elements.get(id);
+    if (element == null) {
+      throw new IllegalArgumentException("hardware element [" + id + "] doesn't exist.");
+    }
+    return (E) ((Element) element).api();
+  }
+
+  /**
+   * Press or release a button without MIDI message.
+   *
+   * @param id id of HardwareButton
+   * @param pressed pressed state
+   */
+  public void button(String id, boolean pressed) {
+    Button button = (Button) elements.get(id);
+    if (pressed) {
+      button.press();
+    } else {
+      button.release();
+    }
+  }
+
+  /**
+   * Move an absolute knob without MIDI message.
+   *
+   * @param id id of AbsoluteHardwareKnob
+   * @param value normalized value
+   */
+  public void knob(String id, double value) {
+    ((AbsoluteKnob) elements.get(id)).adjust(value);
+  }
+
+  /** Send changed light states to hardware. */
+  public void updateHardware() {
+    for (int i = 0; i < lights.size(); i++) {
+      lights.get(i).update();
+    }
+  }
+
+  void midiReceived(HeadlessMidiIn port, int status, int data1, int data2) {
+    for (int i = 0; i < buttons.size(); i++) {
+      Button button = buttons.get(i);
+      if (button.pressedAction.matches(port, status, data1, data2)) {
+        button.press();
+      } else if (button.releasedAction.matches(port, status, data1, data2)) {
+        button.release();
+      }
+    }
+    for (int i = 0; i < absoluteKnobs.size(); i++) {
+      AbsoluteKnob knob = absoluteKnobs.get(i);
+      if (knob.matcher != null && knob.matcher.matches(port, status, data1, data2)) {
+        knob.adjust(data2 / 127.0);
+      }
+    }
+    for (int i = 0; i < relativeKnobs.size(); i++) {
+      RelativeKnob knob = relativeKnobs.get(i);
+      if (knob.matcher != null && knob.matcher.matches(port, status, data1, data2)) {
+        knob.adjust((data2 < 64 ? data2 : data2 - 128) / (double) knob.matcher.amountPerRotation);
+      }
+    }
+  }
+
+  private <E extends Element> E register(String id, E element) {
+    if (elements.putIfAbsent(id, element) != null) {
+      throw new IllegalArgumentException("hardware element [" + id + "] already exists.");
+    }
+    if (element instanceof Button) buttons.add((Button) element);
+    if (element instanceof AbsoluteKnob) absoluteKnobs.add((AbsoluteKnob) element);
+    if (element instanceof RelativeKnob) relativeKnobs.add((RelativeKnob) element);
+    if (element instanceof Light) lights.add((Light) element);
+    return element;
+  }
+
+  private static interface Element {
+    Object api();
+  }
+
+  /** A list of bound targets. */
+  private static class Bindings implements BindingSource {
+    private final List<Object[]> bindings = new ArrayList<>();
+
+    @Override
+    public HardwareBinding bind(Object target, Object[] args, Class<?> bindingType) {
+      Object[] binding = new Object[] {target, args};
+      bindings.add(binding);
+      return (HardwareBinding)
+          Stubs.create(
+              bindingType,
+              "binding",
+              (proxy, method, a) -> {
+                if (method.getName().equals("removeBinding")) {
+                  bindings.remove(binding);
+                  return null;
+                }
+                return Stubs.DEFAULT;
+              });
+    }
+
+    List<Object[]> snapshot() {
+      return new ArrayList<>(bindings);
+    }
+  }
+
+  private static class Action extends Bindings {
+    private final HardwareAction api;
+    private Matcher matcher;
+
+    private Action(String name) {
+      this.api =
+          Stubs.create(
+              HardwareAction.class,
+              name,
+              (proxy, method, args) -> {
+                if (method.getName().equals("setActionMatcher")) {
+                  matcher = (Matcher) Stubs.attachment(args[0]);
+                  return null;
+                }
+                return Stubs.DEFAULT;
+              },
+              this);
+    }
+
+    private boolean matches(HeadlessMidiIn port, int status, int data1, int data2) {
+      return matcher != null && matcher.matches(port, status, data1, data2);
+    }
+
+    private void fire() {
+      for (Object[] binding : snapshot()) {
+        ((HardwareActionBindable) binding[0]).invoke();
+      }
+    }
+  }
+
+  private static class Button implements Element {
+    private final HardwareButton api;
+    private final Action pressedAction;
+    private final Action releasedAction;
+    private final BooleanValue isPressed;
+
+    private Button(String id) {
+      this.pressedAction = new Action(id + ".pressedAction()");
+      this.releasedAction = new Action(id + ".releasedAction()");
+      this.isPressed = Stubs.create(BooleanValue.class, id + ".isPressed()");
+      this.api =
+          Stubs.create(
+              HardwareButton.class,
+              id,
+              (proxy, method, args) -> {
+                switch (method.getName()) {
+                  case "pressedAction":
+                    return pressedAction.api;
+                  case "releasedAction":
+                    return releasedAction.api;
+                  case "isPressed":
+                    return isPressed;
+                  default:
+                    return Stubs.DEFAULT;
+                }
+              });
+    }
+
+    @Override
+    public Object api() {
+      return api;
+    }
+
+    private void press() {
+      Stubs.value(isPressed).fire(true);
+      pressedAction.fire();
+    }
+
+    private void release() {
+      Stubs.value(isPressed).fire(false);
+      releasedAction.fire();
+    }
+  }
+
+  private static class AbsoluteKnob extends Bindings implements Element {
+    private final AbsoluteHardwareKnob api;
+    private final DoubleValue value;
+    private Matcher matcher;
+
+    private AbsoluteKnob(String id) {
+      this.value = Stubs.create(DoubleValue.class, id + ".value()");
+      this.api =
+          Stubs.create(
+              AbsoluteHardwareKnob.class,
+              id,
+              (proxy, method, args) -> {
+                switch (method.getName()) {
+                  case "value":
+                    return value;
+                  case "setAdjustValueMatcher":
+                    matcher = (Matcher) Stubs.attachment(args[0]);
+                    return null;
+                  default:
+                    return Stubs.DEFAULT;
+                }
+              },
+              this);
+    }
+
+    @Override
+    public Object api() {
+      return api;
+    }
+
+    private void adjust(double v) {
+      Stubs.value(value).fire(v);
+      for (Object[] binding : snapshot()) {
+        if (binding[0] instanceof SettableRangedValue) {
+          Object[] args = (Object[]) binding[1];
+          double min = args.length == 3 ? (Double) args[1] : 0.0;
+          double max = args.length == 3 ? (Double) args[2] : 1.0;
+          ((SettableRangedValue) binding[0]).set(min + (max - min) * v);
+        }
+      }
+    }
+  }
+
+  private static class RelativeKnob extends Bindings implements Element {
+    private final RelativeHardwareKnob api;
+    private Matcher matcher;
+
+    private RelativeKnob(String id) {
+      this.api =
+          Stubs.create(
+              RelativeHardwareKnob.class,
+              id,
+              (proxy, method, args) -> {
+                if (method.getName().equals("setAdjustValueMatcher")) {
+                  matcher = (Matcher) Stubs.attachment(args[0]);
+                  return null;
+                }
+                return Stubs.DEFAULT;
+              },
+              this);
+    }
+
+    @Override
+    public Object api() {
+      return api;
+    }
+
+    private void adjust(double delta) {
+      for (Object[] binding : snapshot()) {
+        if (binding[0] instanceof SettableRangedValue) {
+          Object[] args = (Object[]) binding[1];
+          double sensitivity = args.length == 2 ? (Double) args[1] : 1.0;
+          ((SettableRangedValue) binding[0]).inc(delta * sensitivity);
+        }
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static class Light implements Element {
+    private final MultiStateHardwareLight api;
+    private final ObjectHardwareProperty<InternalHardwareLightState> property;
+    private InternalHardwareLightState value;
+    private InternalHardwareLightState lastSentValue;
+    private Consumer<InternalHardwareLightState> consumer;
+    private boolean invalidated = true;
+
+    private Light(String id) {
+      this.property =
+          Stubs.create(
+              ObjectHardwareProperty.class,
+              id + ".state()",
+              (proxy, method, args) -> {
+                switch (method.getName()) {
+                  case "setValue":
+                    value = (InternalHardwareLightState) args[0];
+                    return null;
+                  case "currentValue":
+                    return value;
+                  case "getLastSentValue":
+                    return lastSentValue;
+                  case "onUpdateHardware":
+                    consumer = (Consumer<InternalHardwareLightState>) args[0];
+                    return null;
+                  default:
+                    return Stubs.DEFAULT;
+                }
+              });
+      this.api =
+          Stubs.create(
+              MultiStateHardwareLight.class,
+              id,
+              (proxy, method, args) -> method.getName().equals("state") ? property : Stubs.DEFAULT);
+    }
+
+    @Override
+    public Object api() {
+      return api;
+    }
+
+    private void invalidate() {
+      invalidated = true;
+    }
+
+    private void update() {
+      if (consumer != null && (invalidated || !Objects.equals(value, lastSentValue))) {
+        invalidated = false;
+        lastSentValue = value;
+        consumer.accept(value);
+      }
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package com.github.jhorology.bitwig.headless;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Collects elapsed times of named steps and reports statistics in microseconds. */
+public class LatencyReport {
+  private final Map<String, Samples> steps = new LinkedHashMap<>();
+
+  /** Samples of a step. */
+  public static class Samples {
+    private long[] values = new long[64];
+    private int size;
+
+    private void add(long nanos) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = nanos;
+    }
+
+    public int count() {
+      return size;
+    }
+
+    /**
+     * Returns a percentile.
+     *
+     * @param p percentile (0-100)
+     * @return elapsed time in nanoseconds
+     */
+    public long percentile(double p) {
+      if (size == 0) {
+        return 0;
+      }
+      long[] sorted = Arrays.copyOf(values, size);
+      Arrays.sort(sorted);
+      int index = (int) Math.ceil(p / 100.0 * size) - 1;
+      return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+
+    public long mean() {
+      long sum = 0;
+      for (int i = 0; i < size; i++) {
+        sum += values[i];
+      }
+      return size == 0 ? 0 : sum / size;
+    }
+
+    public long max() {
+      return percentile(100);
+    }
+  }
+
+  /**
+   * Record an elapsed time of step.
+   *
+   * @param step name of step
+   * @param nanos elapsed time in nanoseconds
+   */
+  public void record(String step, long nanos) {
+    steps.computeIfAbsent(step, k -> new Samples()).add(nanos);
+  }
+
+  /**
+   * Returns samples of step.
+   *
+   * @param step name of step
+   * @return samples, or null if never recorded.
+   */
+  public Samples get(String step) {
+    return steps.get(step);
+  }
+
+  /** Clear all samples. */
+  public void clear() {
+    steps.clear();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(
+        String.format(
+            "%-24s %8s %10s %10s %10s %10s%n", "step", "count", "mean", "p50", "p99", "max"));
+    steps.forEach(
+        (step, s) ->
+            sb.append(
+                String.format(
+                    "%-24s %8d %10.1f %10.1f %10.1f %10.1f%n",
+                    step,
+                    s.count(),
+                    s.mean() / 1000.0,
+                    s.percentile(50) / 1000.0,
+                    s.percentile(99) / 1000.0,
+                    s.max() / 1000.0)));
+    sb.append("(us)");
+    return sb.toString();
+  }
+}
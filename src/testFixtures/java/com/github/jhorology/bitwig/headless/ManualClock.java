@@ -0,0 +1,52 @@
+package com.github.jhorology.bitwig.headless;
+
+import com.github.jhorology.bitwig.utils.Clock;
+
+/** A clock that is advanced only by caller. */
+public class ManualClock implements Clock {
+  private long nanoTime;
+
+  /** Constructor, the time starts at 0. */
+  public ManualClock() {}
+
+  /**
+   * Constructor.
+   *
+   * @param millis initial time in milliseconds
+   */
+  public ManualClock(long millis) {
+    this.nanoTime = millis * 1_000_000L;
+  }
+
+  @Override
+  public long nanoTime() {
+    return nanoTime;
+  }
+
+  /**
+   * Advance the time.
+   *
+   * @param millis elapsed time in milliseconds
+   */
+  public void advance(long millis) {
+    nanoTime += millis * 1_000_000L;
+  }
+
+  /**
+   * Advance the time.
+   *
+   * @param nanos elapsed time in nanoseconds
+   */
+  public void advanceNanos(long nanos) {
+    nanoTime += nanos;
+  }
+
+  /**
+   * Set the time.
+   *
+   * @param millis time in milliseconds
+   */
+  public void set(long millis) {
+    nanoTime = millis * 1_000_000L;
+  }
+}
@@ -0,0 +1,204 @@
+package com.github.jhorology.bitwig.headless;
+
+import com.bitwig.extension.api.Color;
+import com.bitwig.extension.callback.BooleanValueChangedCallback;
+import com.bitwig.extension.callback.ColorValueChangedCallback;
+import com.bitwig.extension.callback.DoubleValueChangedCallback;
+import com.bitwig.extension.callback.IntegerValueChangedCallback;
+import com.bitwig.extension.callback.ObjectValueChangedCallback;
+import com.bitwig.extension.callback.ValueChangedCallback;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/** A state of stub value, observers are notified synchronously. */
+public final class StubValue {
+  private final String name;
+  private final List<ValueChangedCallback> observers = new ArrayList<>();
+  private boolean subscribed;
+  private int subscribeCount;
+  private int unsubscribeCount;
+  private boolean booleanValue;
+  private double doubleValue;
+  private int intValue;
+  private float red;
+  private float green;
+  private float blue;
+  private Object objectValue;
+
+  StubValue(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Fire a boolean value change.
+   *
+   * @param value new value
+   */
+  public void fire(boolean value) {
+    booleanValue = value;
+    for (int i = 0; i < observers.size(); i++) {
+      ((BooleanValueChangedCallback) observers.get(i)).valueChanged(value);
+    }
+  }
+
+  /**
+   * Fire a double value change.
+   *
+   * @param value new value
+   */
+  public void fire(double value) {
+    doubleValue = value;
+    for (int i = 0; i < observers.size(); i++) {
+      ((DoubleValueChangedCallback) observers.get(i)).valueChanged(value);
+    }
+  }
+
+  /**
+   * Fire an integer value change.
+   *
+   * @param value new value
+   */
+  public void fire(int value) {
+    intValue = value;
+    for (int i = 0; i < observers.size(); i++) {
+      ((IntegerValueChangedCallback) observers.get(i)).valueChanged(value);
+    }
+  }
+
+  /**
+   * Fire a color value change.
+   *
+   * @param red red component
+   * @param green green component
+   * @param blue blue component
+   */
+  public void fire(float red, float green, float blue) {
+    this.red = red;
+    this.green = green;
+    this.blue = blue;
+    for (int i = 0; i < observers.size(); i++) {
+      ((ColorValueChangedCallback) observers.get(i)).valueChanged(red, green, blue);
+    }
+  }
+
+  /**
+   * Fire an object value change.
+   *
+   * @param value new value
+   */
+  @SuppressWarnings("unchecked")
+  public void fire(Object value) {
+    objectValue = value;
+    for (int i = 0; i < observers.size(); i++) {
+      ((ObjectValueChangedCallback<Object>) observers.get(i)).valueChanged(value);
+    }
+  }
+
+  public int getObserverCount() {
+    return observers.size();
+  }
+
+  public boolean isSubscribed() {
+    return subscribed;
+  }
+
+  public int getSubscribeCount() {
+    return subscribeCount;
+  }
+
+  public int getUnsubscribeCount() {
+    return unsubscribeCount;
+  }
+
+  Object invoke(Method method, Object[] args) {
+    switch (method.getName()) {
+      case "addValueObserver":
+        observers.add((ValueChangedCallback) args[0]);
+        return null;
+      case "subscribe":
+      case "markInterested":
+        setSubscribed(true);
+        return null;
+      case "unsubscribe":
+        setSubscribed(false);
+        return null;
+      case "setIsSubscribed":
+        setSubscribed((Boolean) args[0]);
+        return null;
+      case "isSubscribed":
+        return subscribed;
+      case "get":
+      case "getAsBoolean":
+      case "getAsDouble":
+      case "getAsInt":
+      case "getRaw":
+        if (args == null) {
+          return get(method.getReturnType());
+        }
+        return Stubs.DEFAULT;
+      case "invoke":
+      case "toggle":
+        // a SettableBooleanValue acts as toggle when it's bound to button.
+        if (args == null) {
+          fire(!booleanValue);
+          return null;
+        }
+        return Stubs.DEFAULT;
+      case "inc":
+        if (args != null && args.length == 1 && args[0] instanceof Double) {
+          fire(Math.max(0.0, Math.min(1.0, doubleValue + (Double) args[0])));
+          return null;
+        }
+        return Stubs.DEFAULT;
+      case "set":
+        if (args != null && args.length == 1) {
+          set(args[0]);
+          return null;
+        }
+        return Stubs.DEFAULT;
+      default:
+        return Stubs.DEFAULT;
+    }
+  }
+
+  private Object get(Class<?> type) {
+    if (type == boolean.class) return booleanValue;
+    if (type == double.class) return doubleValue;
+    if (type == int.class) return intValue;
+    if (type == Color.class) return Color.fromRGB(red, green, blue);
+    return objectValue;
+  }
+
+  private void set(Object value) {
+    if (value instanceof Boolean) {
+      fire(((Boolean) value).booleanValue());
+    } else if (value instanceof Double) {
+      fire(((Double) value).doubleValue());
+    } else if (value instanceof Integer) {
+      fire(((Integer) value).intValue());
+    } else if (value instanceof Color) {
+      Color c = (Color) value;
+      fire((float) c.getRed(), (float) c.getGreen(), (float) c.getBlue());
+    } else {
+      fire(value);
+    }
+  }
+
+  private void setSubscribed(boolean subscribed) {
+    if (this.subscribed == subscribed) {
+      return;
+    }
+    this.subscribed = subscribed;
+    if (subscribed) {
+      subscribeCount++;
+    } else {
+      unsubscribeCount++;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -0,0 +1,334 @@
+package com.github.jhorology.bitwig.headless;
+
+import com.bitwig.extension.callback.BooleanValueChangedCallback;
+import com.bitwig.extension.callback.ColorValueChangedCallback;
+import com.bitwig.extension.callback.DoubleValueChangedCallback;
+import com.bitwig.extension.callback.EnumValueChangedCallback;
+import com.bitwig.extension.callback.IntegerValueChangedCallback;
+import com.bitwig.extension.callback.ObjectValueChangedCallback;
+import com.bitwig.extension.callback.StringArrayValueChangedCallback;
+import com.bitwig.extension.callback.StringValueChangedCallback;
+import com.bitwig.extension.controller.api.HardwareBinding;
+import com.bitwig.extension.controller.api.Value;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Headless stand-ins of Bitwig API interfaces.
+ *
+ * <p>Every stub is a dynamic proxy that returns another (memoized) stub for any method returning an
+ * interface, so object graphs like {@code host.createTrackBank(4, 3, 4).getItemAt(0).pan()} resolve
+ * to the same instance on every call. Stubs of {@link Value} types keep a {@link StubValue} state
+ * that holds observers and can fire value changes.
+ */
+public final class Stubs {
+  /** A sentinel that tells the stub to fall back to the default behavior. */
+  public static final Object DEFAULT = new Object();
+
+  /** A custom behavior of stub. */
+  @FunctionalInterface
+  public static interface Behavior {
+    /**
+     * Handle a method call.
+     *
+     * @return result of method, or {@link Stubs#DEFAULT} to fall back to the default behavior.
+     */
+    Object invoke(Object proxy, Method method, Object[] args) throws Throwable;
+  }
+
+  /** A hardware element that can be a source of HardwareBinding. */
+  static interface BindingSource {
+    /**
+     * Bind a target to this source.
+     *
+     * @param target a bindable stub, the callee of addBinding*()
+     * @param args arguments of addBinding*(), args[0] is the source itself
+     * @param bindingType return type of addBinding*()
+     * @return a binding
+     */
+    HardwareBinding bind(Object target, Object[] args, Class<?> bindingType);
+  }
+
+  // Bitwig's Value interfaces don't declare a typed addValueObserver(), the concrete
+  // implementation classes do. The proxy also implements one of these to look like them.
+  public static interface BooleanObservable {
+    void addValueObserver(BooleanValueChangedCallback callback);
+  }
+
+  public static interface ColorObservable {
+    void addValueObserver(ColorValueChangedCallback callback);
+  }
+
+  public static interface DoubleObservable {
+    void addValueObserver(DoubleValueChangedCallback callback);
+  }
+
+  public static interface EnumObservable {
+    void addValueObserver(EnumValueChangedCallback callback);
+  }
+
+  public static interface IntegerObservable {
+    void addValueObserver(IntegerValueChangedCallback callback);
+  }
+
+  public static interface StringArrayObservable {
+    void addValueObserver(StringArrayValueChangedCallback callback);
+  }
+
+  public static interface StringObservable {
+    void addValueObserver(StringValueChangedCallback callback);
+  }
+
+  public static interface ObjectObservable {
+    void addValueObserver(ObjectValueChangedCallback<?> callback);
+  }
+
+  private static final Map<Class<?>, Class<?>> OBSERVABLES = new HashMap<>();
+
+  static {
+    OBSERVABLES.put(BooleanValueChangedCallback.class, BooleanObservable.class);
+    OBSERVABLES.put(ColorValueChangedCallback.class, ColorObservable.class);
+    OBSERVABLES.put(DoubleValueChangedCallback.class, DoubleObservable.class);
+    OBSERVABLES.put(EnumValueChangedCallback.class, EnumObservable.class);
+    OBSERVABLES.put(IntegerValueChangedCallback.class, IntegerObservable.class);
+    OBSERVABLES.put(StringArrayValueChangedCallback.class, StringArrayObservable.class);
+    OBSERVABLES.put(StringValueChangedCallback.class, StringObservable.class);
+    OBSERVABLES.put(ObjectValueChangedCallback.class, ObjectObservable.class);
+  }
+
+  private Stubs() {}
+
+  /**
+   * Create a stub.
+   *
+   * @param type interface type
+   * @param name name for debugging
+   * @return a stub
+   */
+  public static <T> T create(Class<T> type, String name) {
+    return create(type, name, null);
+  }
+
+  /**
+   * Create a stub with custom behavior.
+   *
+   * @param type interface type
+   * @param name name for debugging
+   * @param behavior custom behavior, nullable
+   * @return a stub
+   */
+  public static <T> T create(Class<T> type, String name, Behavior behavior) {
+    return create(type, name, behavior, null);
+  }
+
+  /**
+   * Create a stub with custom behavior and attachment.
+   *
+   * @param type interface type
+   * @param name name for debugging
+   * @param behavior custom behavior, nullable
+   * @param attachment an object that is attached to the stub, nullable
+   * @return a stub
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T create(Class<T> type, String name, Behavior behavior, Object attachment) {
+    Class<?> observable = null;
+    if (Value.class.isAssignableFrom(type)) {
+      observable = OBSERVABLES.get(callbackType(type));
+    }
+    Class<?>[] interfaces =
+        observable != null ? new Class<?>[] {type, observable} : new Class<?>[] {type};
+    return (T)
+        Proxy.newProxyInstance(
+            Stubs.class.getClassLoader(),
+            interfaces,
+            new Handler(
+                type, name, behavior, observable != null ? new StubValue(name) : null, attachment));
+  }
+
+  /**
+   * Returns a state of stub value.
+   *
+   * @param value a stub created by this class
+   * @return state of value
+   */
+  public static StubValue value(Value<?> value) {
+    return handler(value).value;
+  }
+
+  /**
+   * Returns an attachment of stub.
+   *
+   * @param stub a stub created by this class
+   * @return attachment, or null if stub is not created by this class
+   */
+  public static Object attachment(Object stub) {
+    if (stub == null || !Proxy.isProxyClass(stub.getClass())) {
+      return null;
+    }
+    InvocationHandler handler = Proxy.getInvocationHandler(stub);
+    return handler instanceof Handler ? ((Handler) handler).attachment : null;
+  }
+
+  /**
+   * Returns a name of stub.
+   *
+   * @param stub a stub created by this class
+   * @return name of stub
+   */
+  public static String name(Object stub) {
+    return handler(stub).name;
+  }
+
+  private static Handler handler(Object stub) {
+    InvocationHandler handler = Proxy.getInvocationHandler(stub);
+    if (!(handler instanceof Handler)) {
+      throw new IllegalArgumentException("[" + stub + "] is not a stub.");
+    }
+    return (Handler) handler;
+  }
+
+  private static Class<?> callbackType(Type type) {
+    Class<?> raw =
+        type instanceof ParameterizedType
+            ? (Class<?>) ((ParameterizedType) type).getRawType()
+            : (Class<?>) type;
+    if (raw == Value.class && type instanceof ParameterizedType) {
+      Type arg = ((ParameterizedType) type).getActualTypeArguments()[0];
+      return arg instanceof Class ? (Class<?>) arg : null;
+    }
+    for (Type superType : raw.getGenericInterfaces()) {
+      Class<?> callbackType = callbackType(superType);
+      if (callbackType != null) {
+        return callbackType;
+      }
+    }
+    return null;
+  }
+
+  // resolves a type variable of generic method like Bank<ItemType>#getItemAt(int)
+  private static Class<?> resolve(Type owner, Type type, Class<?> erasure) {
+    if (!(type instanceof TypeVariable)) {
+      return erasure;
+    }
+    TypeVariable<?> var = (TypeVariable<?>) type;
+    Class<?> raw =
+        owner instanceof ParameterizedType
+            ? (Class<?>) ((ParameterizedType) owner).getRawType()
+            : (Class<?>) owner;
+    if (owner instanceof ParameterizedType && raw == var.getGenericDeclaration()) {
+      TypeVariable<?>[] params = raw.getTypeParameters();
+      for (int i = 0; i < params.length; i++) {
+        if (params[i].equals(var)) {
+          Type arg = ((ParameterizedType) owner).getActualTypeArguments()[i];
+          return arg instanceof Class ? (Class<?>) arg : erasure;
+        }
+      }
+    }
+    for (Type superType : raw.getGenericInterfaces()) {
+      Class<?> resolved = resolve(superType, type, null);
+      if (resolved != null) {
+        return resolved;
+      }
+    }
+    return erasure;
+  }
+
+  private static Object defaultValue(Class<?> type) {
+    if (type == boolean.class) return false;
+    if (type == int.class) return 0;
+    if (type == long.class) return 0L;
+    if (type == double.class) return 0.0;
+    if (type == float.class) return 0.0f;
+    if (type == String.class) return "";
+    return null;
+  }
+
+  private static class Handler implements InvocationHandler {
+    private final Class<?> type;
+    private final String name;
+    private final Behavior behavior;
+    private final StubValue value;
+    private final Object attachment;
+    private final Map<List<Object>, Object> memo = new HashMap<>();
+
+    private Handler(
+        Class<?> type, String name, Behavior behavior, StubValue value, Object attachment) {
+      this.type = type;
+      this.name = name;
+      this.behavior = behavior;
+      this.value = value;
+      this.attachment = attachment;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "equals":
+          if (args != null && args.length == 1 && method.getParameterTypes()[0] == Object.class) {
+            return proxy == args[0];
+          }
+          break;
+        case "hashCode":
+          if (args == null) return System.identityHashCode(proxy);
+          break;
+        case "toString":
+          if (args == null) return name;
+          break;
+        default:
+      }
+      if (behavior != null) {
+        Object result = behavior.invoke(proxy, method, args);
+        if (result != DEFAULT) {
+          return result;
+        }
+      }
+      if (value != null) {
+        Object result = value.invoke(method, args);
+        if (result != DEFAULT) {
+          return result;
+        }
+      }
+      if (method.getName().startsWith("addBinding")
+          && args != null
+          && attachment(args[0]) instanceof BindingSource) {
+        return ((BindingSource) attachment(args[0])).bind(proxy, args, method.getReturnType());
+      }
+      Class<?> returnType = resolve(type, method.getGenericReturnType(), method.getReturnType());
+      if (returnType.isInterface()) {
+        List<Object> key = new ArrayList<>();
+        key.add(method.getName());
+        if (args != null) {
+          key.addAll(Arrays.asList(args));
+        }
+        Object stub = memo.get(key);
+        if (stub == null) {
+          stub = create(returnType, name + "." + method.getName() + argsToString(args));
+          memo.put(key, stub);
+        }
+        return stub;
+      }
+      return defaultValue(returnType);
+    }
+
+    private static String argsToString(Object[] args) {
+      if (args == null) return "()";
+      String s = Arrays.toString(args);
+      return "(" + s.substring(1, s.length() - 1) + ")";
+    }
+
+    @Override
+    public String toString() {
+      return "Stub[" + type.getSimpleName() + "]";
+    }
+  }
+}
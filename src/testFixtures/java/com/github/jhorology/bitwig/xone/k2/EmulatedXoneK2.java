@@ -0,0 +1,176 @@
+package com.github.jhorology.bitwig.xone.k2;
+
+import com.github.jhorology.bitwig.headless.HeadlessMidiIn;
+import com.github.jhorology.bitwig.headless.HeadlessMidiOut;
+import java.util.Arrays;
+
+/**
+ * An emulated XONE:K2 connected to headless MIDI ports.
+ *
+ * <p>The emulator records the LED state implied by every received note message, a LED has 3 notes,
+ * red=note, yellow=note+offset, green=note+offset*2. offset is 4 for LAYER/SHIFT buttons, otherwise
+ * 36.
+ */
+public class EmulatedXoneK2 {
+  /** A color of LED. */
+  public static enum Color {
+    OFF,
+    RED,
+    YELLOW,
+    GREEN
+  }
+
+  /** notes of buttons that have LED. */
+  public static final int[] LED_BUTTON_NOTES = {
+    // encoder push buttons
+    0x34, 0x35, 0x36, 0x37, 0x30, 0x31, 0x32, 0x33, 0x2C, 0x2D, 0x2E, 0x2F, 0x28, 0x29, 0x2A, 0x2B,
+    // grid buttons A-P
+    0x24, 0x25, 0x26, 0x27, 0x20, 0x21, 0x22, 0x23, 0x1C, 0x1D, 0x1E, 0x1F, 0x18, 0x19, 0x1A, 0x1B,
+    // LAYER, SHIFT
+    0x0C, 0x0F
+  };
+
+  /** CCs of relative encoders CH0_ENC0..CH3_ENC0, NAV1, NAV2. */
+  public static final int[] RELATIVE_CCS = {0x0, 0x1, 0x2, 0x3, 0x14, 0x15};
+
+  private final HeadlessMidiIn midiIn;
+  private final int channel;
+  // LED note -> button note
+  private final int[] ledOwner = new int[128];
+  // LED note -> color
+  private final Color[] ledColor = new Color[128];
+  // button note -> current color
+  private final Color[] leds = new Color[128];
+  private long ledMessages;
+  private long redundantLedMessages;
+  private long firstLedOutNanos;
+
+  /**
+   * Constructor.
+   *
+   * @param midiIn MIDI input port of host, the emulator sends messages to it.
+   * @param midiOut MIDI output port of host, the emulator receives messages from it.
+   * @param channel MIDI channel (0-15)
+   */
+  public EmulatedXoneK2(HeadlessMidiIn midiIn, HeadlessMidiOut midiOut, int channel) {
+    this.midiIn = midiIn;
+    this.channel = channel;
+    Arrays.fill(ledOwner, -1);
+    for (int note : LED_BUTTON_NOTES) {
+      int offset = note == 0x0C || note == 0x0F ? 4 : 36;
+      register(note, note, Color.RED);
+      register(note + offset, note, Color.YELLOW);
+      register(note + offset * 2, note, Color.GREEN);
+      leds[note] = Color.OFF;
+    }
+    // devices on the same port receive all messages, and filter them by channel.
+    midiOut.addListener(this::midiReceived);
+  }
+
+  /**
+   * Press a button.
+   *
+   * @param note note number of button
+   */
+  public void press(int note) {
+    midiIn.receive(0x90 | channel, note, 0x7F);
+  }
+
+  /**
+   * Release a button.
+   *
+   * @param note note number of button
+   */
+  public void release(int note) {
+    midiIn.receive(0x80 | channel, note, 0);
+  }
+
+  /**
+   * Move a fader or an absolute knob.
+   *
+   * @param cc CC number of control
+   * @param value 7bit value
+   */
+  public void move(int cc, int value) {
+    midiIn.receive(0xB0 | channel, cc, value & 0x7F);
+  }
+
+  /**
+   * Rotate a relative encoder.
+   *
+   * @param cc CC number of encoder
+   * @param ticks signed amount of ticks, positive value is clockwise.
+   */
+  public void rotate(int cc, int ticks) {
+    midiIn.receive(0xB0 | channel, cc, ticks & 0x7F);
+  }
+
+  /**
+   * Returns a current color of LED.
+   *
+   * @param note note number of button
+   * @return color of LED
+   */
+  public Color led(int note) {
+    Color color = leds[note];
+    if (color == null) {
+      throw new IllegalArgumentException("button[note=" + note + "] doesn't have LED.");
+    }
+    return color;
+  }
+
+  /**
+   * Returns a number of received LED messages.
+   *
+   * @return number of messages
+   */
+  public long getLedMessageCount() {
+    return ledMessages;
+  }
+
+  /**
+   * Returns a number of received LED messages that didn't change any LED.
+   *
+   * @return number of messages
+   */
+  public long getRedundantLedMessageCount() {
+    return redundantLedMessages;
+  }
+
+  /**
+   * Returns a System.nanoTime() when the first LED message is received since last reset.
+   *
+   * @return time in nanoseconds, or 0 if no LED message is received.
+   */
+  public long getFirstLedOutNanos() {
+    return firstLedOutNanos;
+  }
+
+  /** Reset the time of first LED message. */
+  public void resetFirstLedOutNanos() {
+    firstLedOutNanos = 0;
+  }
+
+  private void register(int ledNote, int buttonNote, Color color) {
+    ledOwner[ledNote] = buttonNote;
+    ledColor[ledNote] = color;
+  }
+
+  private void midiReceived(int status, int data1, int data2) {
+    if ((status & 0xF) != channel || (status & 0xE0) != 0x80 || ledOwner[data1] < 0) {
+      return;
+    }
+    if (firstLedOutNanos == 0) {
+      firstLedOutNanos = System.nanoTime();
+    }
+    ledMessages++;
+    int button = ledOwner[data1];
+    Color current = leds[button];
+    boolean on = (status & 0xF0) == 0x90 && data2 > 0;
+    Color next = on ? ledColor[data1] : current == ledColor[data1] ? Color.OFF : current;
+    if (next == current) {
+      redundantLedMessages++;
+    }
+    leds[button] = next;
+  }
+}
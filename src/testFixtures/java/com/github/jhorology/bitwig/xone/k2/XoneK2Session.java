@@ -0,0 +1,171 @@
+package com.github.jhorology.bitwig.xone.k2;
+
+import com.github.jhorology.bitwig.headless.HeadlessHost;
+import com.github.jhorology.bitwig.headless.LatencyReport;
+
+/**
+ * A headless session of XONE:K2 extension.
+ *
+ * <p>Runs the extension's init()/flush()/exit() on a headless host with an emulated device, and
+ * records how long each step takes from MIDI-in to LED-out.
+ *
+ * <pre>
+ *   midiIn       : MIDI message is received, until all handlers return.
+ *   flush        : ControllerExtension#flush()
+ *   midiInToLed  : MIDI message is received, until the first LED message is sent.
+ * </pre>
+ */
+public class XoneK2Session {
+  private final HeadlessHost host;
+  private final XoneK2Extension extension;
+  private final EmulatedXoneK2[] devices;
+  private final LatencyReport report = new LatencyReport();
+
+  public XoneK2Session() {
+    this(true);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param rawMidiInput true to dispatch handlers from MIDI callback, false for hardware surface.
+   */
+  public XoneK2Session(boolean rawMidiInput) {
+    this(rawMidiInput, 1);
+  }
+
+  /**
+   * Constructor with multiple units, units are daisy-chained on the first MIDI port and unit N uses
+   * MIDI channel N.
+   *
+   * @param rawMidiInput true to dispatch handlers from MIDI callback, false for hardware surface.
+   * @param numUnits number of units
+   */
+  public XoneK2Session(boolean rawMidiInput, int numUnits) {
+    this.host = new HeadlessHost(XoneK2ExtensionDefinition.NUM_MIDI_PORTS);
+    this.extension = new XoneK2ExtensionDefinition().createInstance(host.api());
+    // blinks and coalesced values follow the virtual time.
+    extension.setClock(host.clock());
+    extension.setRawMidiInput(rawMidiInput);
+    this.devices = new EmulatedXoneK2[numUnits];
+    for (int i = 0; i < numUnits; i++) {
+      extension.addUnit(0, i);
+      devices[i] = new EmulatedXoneK2(host.midiIn(0), host.midiOut(0), i);
+    }
+  }
+
+  public HeadlessHost host() {
+    return host;
+  }
+
+  public EmulatedXoneK2 device() {
+    return devices[0];
+  }
+
+  /**
+   * Returns an emulated device of unit.
+   *
+   * @param index index of unit
+   * @return device
+   */
+  public EmulatedXoneK2 device(int index) {
+    return devices[index];
+  }
+
+  public LatencyReport report() {
+    return report;
+  }
+
+  /** ControllerExtension#init() then first flush(). */
+  public void init() {
+    long start = System.nanoTime();
+    extension.init();
+    report.record("init", System.nanoTime() - start);
+    flush();
+  }
+
+  /** ControllerExtension#flush(). */
+  public void flush() {
+    long start = System.nanoTime();
+    extension.flush();
+    report.record("flush", System.nanoTime() - start);
+  }
+
+  /** ControllerExtension#exit(). */
+  public void exit() {
+    long start = System.nanoTime();
+    extension.exit();
+    report.record("exit", System.nanoTime() - start);
+  }
+
+  /**
+   * Advance the virtual time, and run scheduled tasks.
+   *
+   * @param millis elapsed time in milliseconds
+   */
+  public void advance(long millis) {
+    long start = System.nanoTime();
+    host.advance(millis);
+    report.record("advance", System.nanoTime() - start);
+  }
+
+  /**
+   * Send a MIDI message from device then flush, as Bitwig does.
+   *
+   * @param input an action of device, e.g. {@code () -> device().press(0x24)}
+   * @return elapsed time from MIDI-in to first LED-out of first unit in nanoseconds, or -1 if no
+   *     LED changed.
+   */
+  public long input(Runnable input) {
+    EmulatedXoneK2 device = devices[0];
+    device.resetFirstLedOutNanos();
+    long start = System.nanoTime();
+    input.run();
+    report.record("midiIn", System.nanoTime() - start);
+    flush();
+    if (device.getFirstLedOutNanos() == 0) {
+      return -1;
+    }
+    long latency = device.getFirstLedOutNanos() - start;
+    report.record("midiInToLed", latency);
+    return latency;
+  }
+
+  /**
+   * Run a scripted scenario and print the report.
+   *
+   * @param args [number of rounds] [true|false: raw MIDI input]
+   */
+  public static void main(String[] args) {
+    int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    boolean rawMidiInput = args.length > 1 ? Boolean.parseBoolean(args[1]) : true;
+    XoneK2Session session = new XoneK2Session(rawMidiInput);
+    EmulatedXoneK2 device = session.device();
+    session.init();
+    for (int i = 0; i < rounds; i++) {
+      for (int note : EmulatedXoneK2.LED_BUTTON_NOTES) {
+        session.input(() -> device.press(note));
+        session.input(() -> device.release(note));
+      }
+      for (int cc = 0x4; cc <= 0x13; cc++) {
+        int value = i & 0x7F;
+        int control = cc;
+        session.input(() -> device.move(control, value));
+      }
+      session.advance(50);
+    }
+    XoneK2LedOutput ledOutput = XoneK2Control.getUnit(0).getLedOutput();
+    System.out.println(
+        "LED output sent: "
+            + ledOutput.getSentCount()
+            + ", suppressed: "
+            + ledOutput.getSuppressedCount());
+    session.exit();
+    System.out.println(session.report());
+    System.out.println(
+        "LED messages: "
+            + device.getLedMessageCount()
+            + ", redundant: "
+            + device.getRedundantLedMessageCount());
+  }
+}